@@ -7,7 +7,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class KidsCarpoolApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(KidsCarpoolApplication.java, args);
+        SpringApplication.run(KidsCarpoolApplication.class, args);
         System.out.println("\n" +
                 "╔══════════════════════════════════════════════════════════╗\n" +
                 "║                                                          ║\n" +
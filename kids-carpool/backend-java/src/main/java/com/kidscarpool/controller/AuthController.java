@@ -4,7 +4,10 @@ import com.kidscarpool.dto.LoginRequest;
 import com.kidscarpool.dto.RegisterRequest;
 import com.kidscarpool.dto.TokenResponse;
 import com.kidscarpool.dto.UserResponse;
+import com.kidscarpool.security.ServiceOverloadedException;
+import com.kidscarpool.security.TooManyAttemptsException;
 import com.kidscarpool.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,6 +16,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -20,25 +26,28 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    // Both endpoints finish on the password hashing pool, so the request thread is released meanwhile
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request,
+                                                         HttpServletRequest httpRequest) {
         try {
-            UserResponse user = authService.register(request);
-            return ResponseEntity.ok(user);
+            return authService.register(request, httpRequest.getRemoteAddr())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> registerError(unwrap(e)));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(new ErrorResponse(e.getMessage()));
+            return CompletableFuture.completedFuture(registerError(e));
         }
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request,
+                                                      HttpServletRequest httpRequest) {
         try {
-            TokenResponse token = authService.login(request);
-            return ResponseEntity.ok(token);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new ErrorResponse("Invalid credentials"));
+            return authService.login(request, httpRequest.getRemoteAddr())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> loginError(unwrap(e)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(loginError(e));
         }
     }
     
@@ -46,7 +55,7 @@ public class AuthController {
     public ResponseEntity<?> getCurrentUser() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String email = (String) authentication.getPrincipal();
+            String email = authentication.getName();
             UserResponse user = authService.getCurrentUser(email);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
@@ -55,6 +64,36 @@ public class AuthController {
         }
     }
     
+    private ResponseEntity<?> registerError(Throwable e) {
+        if (e instanceof TooManyAttemptsException) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+        if (e instanceof ServiceOverloadedException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+    }
+    
+    private ResponseEntity<?> loginError(Throwable e) {
+        if (e instanceof TooManyAttemptsException) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+        if (e instanceof ServiceOverloadedException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Invalid credentials"));
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
     // Error response class
     private static class ErrorResponse {
         private String detail;
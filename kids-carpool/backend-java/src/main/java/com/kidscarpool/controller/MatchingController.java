@@ -0,0 +1,74 @@
+package com.kidscarpool.controller;
+
+import com.kidscarpool.dto.MatchingResponse;
+import com.kidscarpool.dto.RideRequestResponse;
+import com.kidscarpool.security.AuthUtil;
+import com.kidscarpool.service.RideMatchingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/matching")
+public class MatchingController {
+    
+    @Autowired
+    private RideMatchingService rideMatchingService;
+    
+    @Autowired
+    private AuthUtil authUtil;
+    
+    @GetMapping("/schools/{schoolId}")
+    public ResponseEntity<?> suggestMatches(@PathVariable Long schoolId,
+                                            @RequestParam String date,
+                                            Authentication authentication) {
+        try {
+            requireAdmin(authentication);
+            MatchingResponse matching = rideMatchingService.suggestMatches(schoolId, date);
+            return ResponseEntity.ok(matching);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/schools/{schoolId}/apply")
+    public ResponseEntity<?> applyMatches(@PathVariable Long schoolId,
+                                          @RequestParam String date,
+                                          Authentication authentication) {
+        try {
+            requireAdmin(authentication);
+            List<RideRequestResponse> requests = rideMatchingService.applyMatches(schoolId, date);
+            return ResponseEntity.ok(requests);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    private void requireAdmin(Authentication authentication) {
+        if (!authUtil.isAdmin(authentication)) {
+            throw new RuntimeException("Unauthorized access to ride matching");
+        }
+    }
+    
+    private static class ErrorResponse {
+        private String detail;
+        
+        public ErrorResponse(String detail) {
+            this.detail = detail;
+        }
+        
+        public String getDetail() {
+            return detail;
+        }
+        
+        public void setDetail(String detail) {
+            this.detail = detail;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.kidscarpool.controller;
 
+import com.kidscarpool.dto.ConversationResponse;
+import com.kidscarpool.dto.MarkReadResponse;
 import com.kidscarpool.dto.MessageRequest;
 import com.kidscarpool.dto.MessageResponse;
+import com.kidscarpool.dto.PageResponse;
+import com.kidscarpool.dto.UnreadCountResponse;
 import com.kidscarpool.security.AuthUtil;
+import com.kidscarpool.service.MessagePushService;
 import com.kidscarpool.service.MessageService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,6 +29,9 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
     
+    @Autowired
+    private MessagePushService messagePushService;
+    
     @Autowired
     private AuthUtil authUtil;
     
@@ -50,6 +61,113 @@ public class MessageController {
         }
     }
     
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMessages() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            SseEmitter emitter = messagePushService.subscribe(userId);
+            return ResponseEntity.ok(emitter);
+        } catch (Exception e) {
+            // The stream's media type is fixed, so the error goes out as a single event
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("error")
+                        .data(new ErrorResponse(e.getMessage()), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException sendFailure) {
+                emitter.completeWithError(sendFailure);
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(emitter);
+        }
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<?> getUserMessagesPage(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            PageResponse<MessageResponse> page = messageService.getUserMessagesPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(@RequestParam String q,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            PageResponse<MessageResponse> page = messageService.searchMessages(userId, q, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/conversations")
+    public ResponseEntity<?> getConversations(@RequestParam(required = false) Long cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            PageResponse<ConversationResponse> page = messageService.getConversationsPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/conversations/{id}")
+    public ResponseEntity<?> getConversationMessages(@PathVariable Long id,
+                                                     @RequestParam(required = false) Long cursor,
+                                                     @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            PageResponse<MessageResponse> page = messageService.getConversationMessagesPage(id, userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/conversations/{id}/read")
+    public ResponseEntity<?> markConversationRead(@PathVariable Long id,
+                                                  @RequestParam(value = "up_to", required = false) Long upTo) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            MarkReadResponse result = messageService.markConversationRead(id, userId, upTo);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            UnreadCountResponse count = messageService.getUnreadCount(userId);
+            return ResponseEntity.ok(count);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{id}/read")
     public ResponseEntity<?> markMessageRead(@PathVariable Long id) {
         try {
@@ -1,7 +1,9 @@
 package com.kidscarpool.controller;
 
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.RatingRequest;
 import com.kidscarpool.dto.RatingResponse;
+import com.kidscarpool.dto.RatingSummaryResponse;
 import com.kidscarpool.security.AuthUtil;
 import com.kidscarpool.service.RatingService;
 import jakarta.validation.Valid;
@@ -48,6 +50,30 @@ public class RatingController {
         }
     }
     
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<?> getUserRatingsPage(@PathVariable Long userId,
+                                                @RequestParam(required = false) Long cursor,
+                                                @RequestParam(required = false) Integer limit) {
+        try {
+            PageResponse<RatingResponse> page = ratingService.getUserRatingsPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<?> getRatingSummary(@PathVariable Long userId) {
+        try {
+            RatingSummaryResponse summary = ratingService.getRatingSummary(userId);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     // Error response class
     private static class ErrorResponse {
         private String detail;
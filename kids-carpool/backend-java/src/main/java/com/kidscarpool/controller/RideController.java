@@ -1,9 +1,16 @@
 package com.kidscarpool.controller;
 
+import com.kidscarpool.dto.NearbyResponse;
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.RideRequest;
 import com.kidscarpool.dto.RideResponse;
+import com.kidscarpool.dto.RouteResponse;
+import com.kidscarpool.dto.WaitlistEntryResponse;
 import com.kidscarpool.security.AuthUtil;
+import com.kidscarpool.service.NearbySearchService;
 import com.kidscarpool.service.RideService;
+import com.kidscarpool.service.RoutePlanningService;
+import com.kidscarpool.service.WaitlistService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +28,15 @@ public class RideController {
     @Autowired
     private RideService rideService;
     
+    @Autowired
+    private NearbySearchService nearbySearchService;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
     @Autowired
     private AuthUtil authUtil;
     
@@ -61,6 +77,19 @@ public class RideController {
         }
     }
     
+    @GetMapping("/school/{schoolId}/page")
+    public ResponseEntity<?> getRidesBySchoolPage(@PathVariable Long schoolId,
+                                                  @RequestParam(required = false) Long cursor,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            PageResponse<RideResponse> page = rideService.getRidesBySchoolPage(schoolId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/active")
     public ResponseEntity<?> getActiveRides() {
         try {
@@ -72,6 +101,51 @@ public class RideController {
         }
     }
     
+    @GetMapping("/active/page")
+    public ResponseEntity<?> getActiveRidesPage(@RequestParam(required = false) Long cursor,
+                                                @RequestParam(required = false) Integer limit) {
+        try {
+            PageResponse<RideResponse> page = rideService.getActiveRidesPage(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<?> searchRides(@RequestParam(name = "school_id", required = false) Long schoolId,
+                                         @RequestParam(name = "date_from", required = false) String dateFrom,
+                                         @RequestParam(name = "date_to", required = false) String dateTo,
+                                         @RequestParam(name = "time_from", required = false) String timeFrom,
+                                         @RequestParam(name = "time_to", required = false) String timeTo,
+                                         @RequestParam(name = "min_seats", required = false) Integer minSeats,
+                                         @RequestParam(required = false) String status,
+                                         @RequestParam(required = false) Integer limit) {
+        try {
+            List<RideResponse> rides = rideService.searchRides(
+                    schoolId, dateFrom, dateTo, timeFrom, timeTo, minSeats, status, limit);
+            return ResponseEntity.ok(rides);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyRides(@RequestParam double lat,
+                                            @RequestParam double lng,
+                                            @RequestParam(name = "radius_km", required = false) Double radiusKm,
+                                            @RequestParam(name = "school_id", required = false) Long schoolId) {
+        try {
+            List<NearbyResponse<RideResponse>> rides = nearbySearchService.ridesNear(lat, lng, radiusKm, schoolId);
+            return ResponseEntity.ok(rides);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getRide(@PathVariable Long id) {
         try {
@@ -83,6 +157,32 @@ public class RideController {
         }
     }
     
+    @GetMapping("/{id}/route")
+    public ResponseEntity<?> getRideRoute(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            RouteResponse route = routePlanningService.getRoute(id, userId);
+            return ResponseEntity.ok(route);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/waitlist")
+    public ResponseEntity<?> getWaitlist(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            List<WaitlistEntryResponse> waitlist = waitlistService.getWaitlist(id, userId);
+            return ResponseEntity.ok(waitlist);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteRide(@PathVariable Long id) {
         try {
@@ -109,6 +209,32 @@ public class RideController {
         }
     }
     
+    @PutMapping("/{id}/seats/{totalSeats}")
+    public ResponseEntity<?> updateTotalSeats(@PathVariable Long id, @PathVariable Integer totalSeats) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            RideResponse ride = rideService.updateTotalSeats(id, totalSeats, userId);
+            return ResponseEntity.ok(ride);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/{id}/waitlist/auto-accept/{enabled}")
+    public ResponseEntity<?> updateWaitlistAutoAccept(@PathVariable Long id, @PathVariable Boolean enabled) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            RideResponse ride = rideService.updateWaitlistAutoAccept(id, enabled, userId);
+            return ResponseEntity.ok(ride);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     // Error response class
     private static class ErrorResponse {
         private String detail;
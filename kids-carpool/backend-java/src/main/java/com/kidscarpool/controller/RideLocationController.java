@@ -0,0 +1,138 @@
+package com.kidscarpool.controller;
+
+import com.kidscarpool.dto.EtaResponse;
+import com.kidscarpool.dto.LocationBatchRequest;
+import com.kidscarpool.dto.LivePositionResponse;
+import com.kidscarpool.dto.LocationBatchResponse;
+import com.kidscarpool.dto.TrackResponse;
+import com.kidscarpool.security.AuthUtil;
+import com.kidscarpool.security.ServiceOverloadedException;
+import com.kidscarpool.service.EtaService;
+import com.kidscarpool.service.LivePositionService;
+import com.kidscarpool.service.LocationIngestionService;
+import com.kidscarpool.service.RideTrackService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/rides")
+public class RideLocationController {
+    
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+    
+    @Autowired
+    private LivePositionService livePositionService;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private RideTrackService rideTrackService;
+    
+    @Autowired
+    private AuthUtil authUtil;
+    
+    @PostMapping("/{id}/locations")
+    public ResponseEntity<?> postLocations(@PathVariable Long id, @Valid @RequestBody LocationBatchRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            int accepted = locationIngestionService.ingest(id, userId, request.getFixes());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new LocationBatchResponse(id, accepted));
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/position")
+    public ResponseEntity<?> getPosition(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            LivePositionResponse position = livePositionService.getLatestPosition(id, userId);
+            return ResponseEntity.ok(position);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/eta")
+    public ResponseEntity<?> getEta(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            EtaResponse eta = etaService.getEta(id, userId);
+            return ResponseEntity.ok(eta);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping(value = "/{id}/position/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPosition(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            SseEmitter emitter = livePositionService.subscribe(id, userId);
+            return ResponseEntity.ok(emitter);
+        } catch (Exception e) {
+            // The stream's media type is fixed, so the error goes out as a single event
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("error")
+                        .data(new ErrorResponse(e.getMessage()), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException sendFailure) {
+                emitter.completeWithError(sendFailure);
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(emitter);
+        }
+    }
+    
+    @GetMapping("/{id}/track")
+    public ResponseEntity<?> getTrack(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            TrackResponse track = rideTrackService.getTrack(id, userId);
+            return ResponseEntity.ok(track);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    private static class ErrorResponse {
+        private String detail;
+        
+        public ErrorResponse(String detail) {
+            this.detail = detail;
+        }
+        
+        public String getDetail() {
+            return detail;
+        }
+        
+        public void setDetail(String detail) {
+            this.detail = detail;
+        }
+    }
+}
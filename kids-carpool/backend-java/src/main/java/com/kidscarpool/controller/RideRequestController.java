@@ -1,9 +1,15 @@
 package com.kidscarpool.controller;
 
+import com.kidscarpool.dto.BulkStatusRequest;
+import com.kidscarpool.dto.BulkStatusResponse;
+import com.kidscarpool.dto.PageResponse;
+import com.kidscarpool.dto.RideRequestDetailResponse;
 import com.kidscarpool.dto.RideRequestRequest;
 import com.kidscarpool.dto.RideRequestResponse;
+import com.kidscarpool.dto.WaitlistEntryResponse;
 import com.kidscarpool.security.AuthUtil;
 import com.kidscarpool.service.RideRequestService;
+import com.kidscarpool.service.WaitlistService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +27,9 @@ public class RideRequestController {
     @Autowired
     private RideRequestService rideRequestService;
     
+    @Autowired
+    private WaitlistService waitlistService;
+    
     @Autowired
     private AuthUtil authUtil;
     
@@ -37,6 +46,33 @@ public class RideRequestController {
         }
     }
     
+    // For full rides: queue for a seat instead of polling the ride
+    @PostMapping("/waitlist")
+    public ResponseEntity<?> joinWaitlist(@Valid @RequestBody RideRequestRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            WaitlistEntryResponse entry = waitlistService.join(request, userId);
+            return ResponseEntity.ok(entry);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long id) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            waitlistService.leave(id, userId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/ride/{rideId}")
     public ResponseEntity<?> getRideRequests(@PathVariable Long rideId) {
         try {
@@ -50,6 +86,19 @@ public class RideRequestController {
         }
     }
     
+    @GetMapping("/ride/{rideId}/details")
+    public ResponseEntity<?> getRideRequestDetails(@PathVariable Long rideId) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            List<RideRequestDetailResponse> requests = rideRequestService.getRideRequestDetails(rideId, userId);
+            return ResponseEntity.ok(requests);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/my-requests")
     public ResponseEntity<?> getUserRequests() {
         try {
@@ -63,6 +112,20 @@ public class RideRequestController {
         }
     }
     
+    @GetMapping("/my-requests/page")
+    public ResponseEntity<?> getUserRequestsPage(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            PageResponse<RideRequestResponse> page = rideRequestService.getUserRequestsPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{id}/status/{status}")
     public ResponseEntity<?> updateRequestStatus(@PathVariable Long id, @PathVariable String status) {
         try {
@@ -76,6 +139,19 @@ public class RideRequestController {
         }
     }
     
+    @PutMapping("/status")
+    public ResponseEntity<?> updateRequestStatuses(@Valid @RequestBody BulkStatusRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long userId = authUtil.getUserIdFromAuthentication(authentication);
+            BulkStatusResponse response = rideRequestService.updateRequestStatuses(request.getUpdates(), userId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}/cancel")
     public ResponseEntity<?> cancelRequest(@PathVariable Long id) {
         try {
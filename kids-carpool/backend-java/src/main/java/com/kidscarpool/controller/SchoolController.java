@@ -1,7 +1,12 @@
 package com.kidscarpool.controller;
 
+import com.kidscarpool.dto.NearbyResponse;
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.SchoolRequest;
 import com.kidscarpool.dto.SchoolResponse;
+import com.kidscarpool.dto.TopDriverResponse;
+import com.kidscarpool.service.LeaderboardService;
+import com.kidscarpool.service.NearbySearchService;
 import com.kidscarpool.service.SchoolService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +23,12 @@ public class SchoolController {
     @Autowired
     private SchoolService schoolService;
     
+    @Autowired
+    private NearbySearchService nearbySearchService;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
     @PostMapping
     public ResponseEntity<?> createSchool(@Valid @RequestBody SchoolRequest request) {
         try {
@@ -40,6 +51,31 @@ public class SchoolController {
         }
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<?> getSchoolsPage(@RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            PageResponse<SchoolResponse> page = schoolService.getSchoolsPage(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbySchools(@RequestParam double lat,
+                                              @RequestParam double lng,
+                                              @RequestParam(required = false) Integer k) {
+        try {
+            List<NearbyResponse<SchoolResponse>> schools = nearbySearchService.nearestSchools(lat, lng, k);
+            return ResponseEntity.ok(schools);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getSchool(@PathVariable Long id) {
         try {
@@ -51,6 +87,18 @@ public class SchoolController {
         }
     }
     
+    @GetMapping("/{id}/top-drivers")
+    public ResponseEntity<?> getTopDrivers(@PathVariable Long id,
+                                           @RequestParam(required = false) Integer limit) {
+        try {
+            List<TopDriverResponse> drivers = leaderboardService.getTopDrivers(id, limit);
+            return ResponseEntity.ok(drivers);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteSchool(@PathVariable Long id) {
         try {
@@ -0,0 +1,17 @@
+package com.kidscarpool.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusRequest {
+    
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 100, message = "At most 100 updates per batch")
+    @Valid
+    private List<StatusUpdateRequest> updates;
+}
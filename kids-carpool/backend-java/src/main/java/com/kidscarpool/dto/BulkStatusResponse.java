@@ -0,0 +1,14 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkStatusResponse {
+    private Integer updated;
+    // One entry per submitted update, in the submitted order
+    private List<StatusUpdateResult> results;
+}
@@ -17,6 +17,12 @@ public class ChildRequest {
     
     private Long school_id;
     
+    private String home_address;
+    
+    private Double home_latitude;
+    
+    private Double home_longitude;
+    
     private String emergency_contact_name;
     
     private String emergency_contact_phone;
@@ -13,6 +13,9 @@ public class ChildResponse {
     private String grade;
     private Long school_id;
     private Long user_id;
+    private String home_address;
+    private Double home_latitude;
+    private Double home_longitude;
     private String emergency_contact_name;
     private String emergency_contact_phone;
     private String medical_info;
@@ -27,6 +30,9 @@ public class ChildResponse {
         response.setGrade(child.getGrade());
         response.setSchool_id(child.getSchoolId());
         response.setUser_id(child.getUserId());
+        response.setHome_address(child.getHomeAddress());
+        response.setHome_latitude(child.getHomeLatitude());
+        response.setHome_longitude(child.getHomeLongitude());
         response.setEmergency_contact_name(child.getEmergencyContactName());
         response.setEmergency_contact_phone(child.getEmergencyContactPhone());
         response.setMedical_info(child.getMedicalInfo());
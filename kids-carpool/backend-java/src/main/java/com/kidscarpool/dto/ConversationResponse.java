@@ -0,0 +1,28 @@
+package com.kidscarpool.dto;
+
+import com.kidscarpool.model.Conversation;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ConversationResponse {
+    private Long id;
+    private Long other_user_id;
+    private String other_user_name;
+    private MessageResponse last_message;
+    private LocalDateTime last_message_at;
+    private Long unread_count;
+    
+    public static ConversationResponse fromConversation(Conversation conversation, Long userId, String otherUserName,
+                                                        MessageResponse lastMessage, long unreadCount) {
+        ConversationResponse response = new ConversationResponse();
+        response.setId(conversation.getId());
+        response.setOther_user_id(conversation.otherParticipant(userId));
+        response.setOther_user_name(otherUserName);
+        response.setLast_message(lastMessage);
+        response.setLast_message_at(conversation.getLastMessageAt());
+        response.setUnread_count(unreadCount);
+        return response;
+    }
+}
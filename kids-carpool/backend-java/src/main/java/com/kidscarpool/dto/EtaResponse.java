@@ -0,0 +1,18 @@
+package com.kidscarpool.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class EtaResponse {
+    private Long ride_id;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recorded_at;
+    private Double speed_kmh;
+    private Boolean arrived;
+    private LocalDateTime school_eta;
+    private List<StopEtaResponse> stops;
+}
@@ -0,0 +1,33 @@
+package com.kidscarpool.dto;
+
+import com.kidscarpool.tracking.GeofenceEvent;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+public class GeofenceEventResponse {
+    private String type;
+    private Long ride_id;
+    private Long school_id;
+    private Long ride_request_id;
+    private Long child_id;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime occurred_at;
+    
+    public static GeofenceEventResponse fromEvent(GeofenceEvent event) {
+        GeofenceEventResponse response = new GeofenceEventResponse();
+        response.setType(event.type().name().toLowerCase());
+        response.setRide_id(event.rideId());
+        response.setSchool_id(event.schoolId());
+        response.setRide_request_id(event.rideRequestId());
+        response.setChild_id(event.childId());
+        response.setLatitude(event.latitude());
+        response.setLongitude(event.longitude());
+        response.setOccurred_at(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.occurredAt()), ZoneId.systemDefault()));
+        return response;
+    }
+}
@@ -0,0 +1,25 @@
+package com.kidscarpool.dto;
+
+import com.kidscarpool.tracking.LocationFix;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+public class LivePositionResponse {
+    private Long ride_id;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recorded_at;
+    
+    public static LivePositionResponse fromFix(LocationFix fix) {
+        LivePositionResponse response = new LivePositionResponse();
+        response.setRide_id(fix.rideId());
+        response.setLatitude(fix.latitude());
+        response.setLongitude(fix.longitude());
+        response.setRecorded_at(LocalDateTime.ofInstant(Instant.ofEpochMilli(fix.recordedAt()), ZoneId.systemDefault()));
+        return response;
+    }
+}
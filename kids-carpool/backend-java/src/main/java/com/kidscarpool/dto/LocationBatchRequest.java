@@ -0,0 +1,17 @@
+package com.kidscarpool.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LocationBatchRequest {
+    
+    @NotEmpty(message = "At least one fix is required")
+    @Size(max = 500, message = "At most 500 fixes per batch")
+    @Valid
+    private List<LocationFixRequest> fixes;
+}
@@ -0,0 +1,11 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LocationBatchResponse {
+    private Long ride_id;
+    private Integer accepted;
+}
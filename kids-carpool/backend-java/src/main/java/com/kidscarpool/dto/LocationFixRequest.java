@@ -0,0 +1,17 @@
+package com.kidscarpool.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class LocationFixRequest {
+    
+    @NotNull(message = "Latitude is required")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    private Double longitude;
+    
+    // Epoch milliseconds on the device; defaults to the time the batch is received
+    private Long recorded_at;
+}
@@ -0,0 +1,11 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MarkReadResponse {
+    private Long conversation_id;
+    private Integer marked;
+}
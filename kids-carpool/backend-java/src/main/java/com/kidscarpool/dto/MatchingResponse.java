@@ -0,0 +1,16 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MatchingResponse {
+    private Long school_id;
+    private String ride_date;
+    private List<RideMatchResponse> matches;
+    private List<Long> unmatched_child_ids;
+    private Double total_detour_km;
+}
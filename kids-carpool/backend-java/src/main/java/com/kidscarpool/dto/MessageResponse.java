@@ -10,6 +10,7 @@ public class MessageResponse {
     private Long id;
     private Long sender_id;
     private Long receiver_id;
+    private Long conversation_id;
     private String content;
     private Boolean is_read;
     private LocalDateTime created_at;
@@ -19,6 +20,7 @@ public class MessageResponse {
         response.setId(message.getId());
         response.setSender_id(message.getSenderId());
         response.setReceiver_id(message.getReceiverId());
+        response.setConversation_id(message.getConversationId());
         response.setContent(message.getContent());
         response.setIs_read(message.getIsRead());
         response.setCreated_at(message.getCreatedAt());
@@ -0,0 +1,11 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NearbyResponse<T> {
+    private T item;
+    private Double distance_km;
+}
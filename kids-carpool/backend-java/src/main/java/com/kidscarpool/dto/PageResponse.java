@@ -0,0 +1,22 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private Long next;
+    
+    // Rows are fetched with one extra to detect a following page; the extra row is dropped here
+    public static <E, T> PageResponse<T> of(List<E> rows, int limit, Function<E, T> mapper, Function<E, Long> idOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        Long next = hasMore ? idOf.apply(page.get(page.size() - 1)) : null;
+        return new PageResponse<>(page.stream().map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,16 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class RatingSummaryResponse {
+    private Long user_id;
+    private Double average_rating;
+    private Integer total_ratings;
+    // Stars (1-5) to the number of ratings with that many stars
+    private Map<Integer, Integer> histogram;
+}
@@ -0,0 +1,13 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RideMatchResponse {
+    private Long child_id;
+    private String child_name;
+    private Long ride_id;
+    private Double detour_km;
+}
@@ -19,6 +19,10 @@ public class RideRequest {
     @NotBlank(message = "Pickup location is required")
     private String pickup_location;
     
+    private Double pickup_latitude;
+    
+    private Double pickup_longitude;
+    
     @NotBlank(message = "Dropoff location is required")
     private String dropoff_location;
     
@@ -29,4 +33,7 @@ public class RideRequest {
     private Integer total_seats;
     
     private String notes;
+    
+    // Opens a waitlist whose heads are accepted automatically when a seat frees up; off by default
+    private Boolean waitlist_auto_accept;
 }
@@ -0,0 +1,46 @@
+package com.kidscarpool.dto;
+
+import com.kidscarpool.repository.RideRequestRepository;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A ride request with what the driver needs to see about the child and the parent asking
+@Data
+public class RideRequestDetailResponse {
+    private Long id;
+    private Long ride_id;
+    private String status;
+    private String pickup_address;
+    private Double pickup_latitude;
+    private Double pickup_longitude;
+    private LocalDateTime created_at;
+    private Long child_id;
+    private String child_name;
+    private Integer child_age;
+    private String child_grade;
+    private Long requester_id;
+    private String requester_name;
+    private Double requester_rating;
+    private Integer requester_total_ratings;
+    
+    public static RideRequestDetailResponse fromDetail(RideRequestRepository.RequestDetail detail) {
+        RideRequestDetailResponse response = new RideRequestDetailResponse();
+        response.setId(detail.getId());
+        response.setRide_id(detail.getRideId());
+        response.setStatus(detail.getStatus().name().toLowerCase());
+        response.setPickup_address(detail.getPickupAddress());
+        response.setPickup_latitude(detail.getPickupLatitude());
+        response.setPickup_longitude(detail.getPickupLongitude());
+        response.setCreated_at(detail.getCreatedAt());
+        response.setChild_id(detail.getChildId());
+        response.setChild_name(detail.getChildName());
+        response.setChild_age(detail.getChildAge());
+        response.setChild_grade(detail.getChildGrade());
+        response.setRequester_id(detail.getRequesterId());
+        response.setRequester_name(detail.getRequesterName());
+        response.setRequester_rating(detail.getRequesterRating());
+        response.setRequester_total_ratings(detail.getRequesterTotalRatings());
+        return response;
+    }
+}
@@ -15,4 +15,8 @@ public class RideRequestRequest {
     
     @NotBlank(message = "Pickup address is required")
     private String pickup_address;
+    
+    private Double pickup_latitude;
+    
+    private Double pickup_longitude;
 }
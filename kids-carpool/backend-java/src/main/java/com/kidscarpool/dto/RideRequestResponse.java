@@ -12,6 +12,8 @@ public class RideRequestResponse {
     private Long requester_id;
     private Long child_id;
     private String pickup_address;
+    private Double pickup_latitude;
+    private Double pickup_longitude;
     private String status;
     private LocalDateTime created_at;
     private LocalDateTime updated_at;
@@ -23,6 +25,8 @@ public class RideRequestResponse {
         response.setRequester_id(request.getRequesterId());
         response.setChild_id(request.getChildId());
         response.setPickup_address(request.getPickupAddress());
+        response.setPickup_latitude(request.getPickupLatitude());
+        response.setPickup_longitude(request.getPickupLongitude());
         response.setStatus(request.getStatus().name().toLowerCase());
         response.setCreated_at(request.getCreatedAt());
         response.setUpdated_at(request.getUpdatedAt());
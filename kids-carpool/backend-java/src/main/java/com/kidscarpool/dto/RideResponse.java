@@ -13,10 +13,13 @@ public class RideResponse {
     private String ride_date;
     private String ride_time;
     private String pickup_location;
+    private Double pickup_latitude;
+    private Double pickup_longitude;
     private String dropoff_location;
     private Integer available_seats;
     private Integer total_seats;
     private String notes;
+    private Boolean waitlist_auto_accept;
     private String status;
     private LocalDateTime created_at;
     private LocalDateTime updated_at;
@@ -26,13 +29,16 @@ public class RideResponse {
         response.setId(ride.getId());
         response.setUser_id(ride.getUserId());
         response.setSchool_id(ride.getSchoolId());
-        response.setRide_date(ride.getRideDate());
-        response.setRide_time(ride.getRideTime());
+        response.setRide_date(ride.getRideDate().toString());
+        response.setRide_time(ride.getRideTime().toString());
         response.setPickup_location(ride.getPickupLocation());
+        response.setPickup_latitude(ride.getPickupLatitude());
+        response.setPickup_longitude(ride.getPickupLongitude());
         response.setDropoff_location(ride.getDropoffLocation());
         response.setAvailable_seats(ride.getAvailableSeats());
         response.setTotal_seats(ride.getTotalSeats());
         response.setNotes(ride.getNotes());
+        response.setWaitlist_auto_accept(ride.getWaitlistAutoAccept());
         response.setStatus(ride.getStatus().name().toLowerCase());
         response.setCreated_at(ride.getCreatedAt());
         response.setUpdated_at(ride.getUpdatedAt());
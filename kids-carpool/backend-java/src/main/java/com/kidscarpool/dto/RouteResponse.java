@@ -0,0 +1,21 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RouteResponse {
+    private Long ride_id;
+    private Long school_id;
+    private String departure_time;
+    private String school_start_time;
+    private String arrival_time;
+    private Double total_km;
+    private Double late_minutes;
+    private Boolean optimal;
+    private List<RouteStopResponse> stops;
+    private List<Long> unrouted_request_ids;
+}
@@ -0,0 +1,16 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RouteStopResponse {
+    private Long ride_request_id;
+    private Long child_id;
+    private String pickup_address;
+    private Double latitude;
+    private Double longitude;
+    private String pickup_time;
+    private Double onboard_minutes;
+}
@@ -0,0 +1,15 @@
+package com.kidscarpool.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class StatusUpdateRequest {
+    
+    @NotNull(message = "Request id is required")
+    private Long id;
+    
+    @NotBlank(message = "Status is required")
+    private String status;
+}
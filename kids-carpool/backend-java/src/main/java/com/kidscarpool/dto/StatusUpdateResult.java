@@ -0,0 +1,14 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StatusUpdateResult {
+    private Long id;
+    // updated, unchanged, not_found, unauthorized, invalid_status, duplicate or no_seats
+    private String outcome;
+    // The request's status after the batch; null if the request was not found
+    private String status;
+}
@@ -0,0 +1,15 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class StopEtaResponse {
+    private Long ride_request_id;
+    private Long child_id;
+    private Boolean reached;
+    private LocalDateTime eta;
+}
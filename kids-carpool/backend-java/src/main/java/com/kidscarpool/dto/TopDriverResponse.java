@@ -0,0 +1,15 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TopDriverResponse {
+    private Long driver_id;
+    private String full_name;
+    private Double average_rating;
+    private Integer total_ratings;
+    // Average pulled towards the prior, which is what drivers are ranked by
+    private Double score;
+}
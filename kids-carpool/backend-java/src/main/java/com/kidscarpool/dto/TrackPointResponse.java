@@ -0,0 +1,14 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class TrackPointResponse {
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recorded_at;
+}
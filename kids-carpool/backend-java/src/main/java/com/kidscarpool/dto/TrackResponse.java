@@ -0,0 +1,15 @@
+package com.kidscarpool.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TrackResponse {
+    private Long ride_id;
+    private Boolean compressed;
+    private Integer original_point_count;
+    private List<TrackPointResponse> points;
+}
@@ -0,0 +1,30 @@
+package com.kidscarpool.dto;
+
+import com.kidscarpool.model.WaitlistEntry;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistEntryResponse {
+    private Long id;
+    private Long ride_id;
+    private Long requester_id;
+    private Long child_id;
+    private String pickup_address;
+    // 1 for the entry promoted next
+    private Integer position;
+    private LocalDateTime created_at;
+    
+    public static WaitlistEntryResponse fromEntry(WaitlistEntry entry, int position) {
+        WaitlistEntryResponse response = new WaitlistEntryResponse();
+        response.setId(entry.getId());
+        response.setRide_id(entry.getRideId());
+        response.setRequester_id(entry.getRequesterId());
+        response.setChild_id(entry.getChildId());
+        response.setPickup_address(entry.getPickupAddress());
+        response.setPosition(position);
+        response.setCreated_at(entry.getCreatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,221 @@
+package com.kidscarpool.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index that buckets points into a fixed lat/lon grid. Radius and k-nearest
+ * queries only visit the cells around the query point, so cost depends on local density rather
+ * than on the total number of points. Longitude columns wrap at the antimeridian. Safe for
+ * concurrent reads and writes.
+ */
+public class GeoGridIndex<T> {
+    
+    private final double cellDegrees;
+    private final int lonColumns;
+    private final Map<Long, Map<Long, Entry<T>>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    
+    public GeoGridIndex(double cellDegrees) {
+        // Shrink the cell so a whole number of columns spans 360 degrees and the wrap is seamless
+        this.lonColumns = (int) Math.ceil(360.0 / cellDegrees);
+        this.cellDegrees = 360.0 / lonColumns;
+    }
+    
+    public void put(long id, double lat, double lon, T value) {
+        Entry<T> entry = new Entry<>(id, lat, lon, value);
+        Entry<T> previous = entries.put(id, entry);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+        cells.compute(cellKey(latCell(lat), lonCell(lon)), (key, cell) -> {
+            Map<Long, Entry<T>> target = cell != null ? cell : new ConcurrentHashMap<>();
+            target.put(id, entry);
+            return target;
+        });
+    }
+    
+    public void remove(long id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+    }
+    
+    public Entry<T> get(long id) {
+        return entries.get(id);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+    
+    /** All entries within radiusKm of the point, nearest first. */
+    public List<Match<T>> withinRadius(double lat, double lon, double radiusKm) {
+        double radiusRadians = radiusKm / GeoUtils.EARTH_RADIUS_KM;
+        int latCells = (int) Math.ceil(Math.toDegrees(radiusRadians) / cellDegrees);
+        int centerLat = latCell(lat);
+        List<Integer> columns = columnsAround(lonCell(lon), lonCellsWithin(lat, radiusRadians));
+        
+        List<Match<T>> matches = new ArrayList<>();
+        for (int dLat = -latCells; dLat <= latCells; dLat++) {
+            for (int column : columns) {
+                Map<Long, Entry<T>> cell = cells.get(cellKey(centerLat + dLat, column));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> entry : cell.values()) {
+                    double distance = GeoUtils.haversineKm(lat, lon, entry.lat(), entry.lon());
+                    if (distance <= radiusKm) {
+                        matches.add(new Match<>(entry, distance));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches;
+    }
+    
+    /** The k entries nearest to the point, nearest first, searching outward ring by ring. */
+    public List<Match<T>> nearest(double lat, double lon, int k, double maxDistanceKm) {
+        PriorityQueue<Match<T>> best = new PriorityQueue<>(Comparator.comparingDouble(Match<T>::distanceKm).reversed());
+        int centerLat = latCell(lat);
+        int centerLon = lonCell(lon);
+        int seen = 0;
+        
+        for (int ring = 0; seen < entries.size(); ring++) {
+            // Anything in this ring or beyond is at least this far away
+            if (best.size() == k && ringLowerBoundKm(lat, ring) > best.peek().distanceKm()) {
+                break;
+            }
+            if (ringLowerBoundKm(lat, ring) > maxDistanceKm) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                // The top and bottom rows take every column in reach; rows between only the two edges
+                List<Integer> rowColumns = Math.abs(dLat) == ring
+                        ? columnsAround(centerLon, ring)
+                        : edgeColumns(centerLon, ring);
+                for (int column : rowColumns) {
+                    Map<Long, Entry<T>> cell = cells.get(cellKey(centerLat + dLat, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry<T> entry : cell.values()) {
+                        seen++;
+                        double distance = GeoUtils.haversineKm(lat, lon, entry.lat(), entry.lon());
+                        if (distance > maxDistanceKm) {
+                            continue;
+                        }
+                        if (best.size() < k) {
+                            best.add(new Match<>(entry, distance));
+                        } else if (distance < best.peek().distanceKm()) {
+                            best.poll();
+                            best.add(new Match<>(entry, distance));
+                        }
+                    }
+                }
+            }
+        }
+        
+        List<Match<T>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::distanceKm));
+        return result;
+    }
+    
+    /**
+     * Lower bound on the distance to anything not in rings 0..ring-1. Such a point is at least
+     * ring-1 whole cells away in latitude, or lies within ring+1 cells of the query latitude and
+     * at least ring-1 cells away in longitude. Both use the haversine formula's own lower bounds,
+     * so pruning never skips a nearer entry.
+     */
+    private double ringLowerBoundKm(double lat, int ring) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double gapRadians = Math.toRadians((ring - 1) * cellDegrees);
+        double latBoundKm = GeoUtils.EARTH_RADIUS_KM * gapRadians;
+        if (wrapsAround(ring - 1)) {
+            return latBoundKm;
+        }
+        double farthestLat = Math.min(90.0, Math.abs(lat) + (ring + 1) * cellDegrees);
+        double lonBoundKm = 2 * GeoUtils.EARTH_RADIUS_KM
+                * Math.asin(Math.min(1.0, Math.cos(Math.toRadians(farthestLat)) * Math.sin(gapRadians / 2)));
+        return Math.min(latBoundKm, lonBoundKm);
+    }
+    
+    // True once rings 0..ring span every longitude column
+    private boolean wrapsAround(int ring) {
+        return 2 * ring + 1 >= lonColumns;
+    }
+    
+    // Columns either side of the centre that a cap of the given angular radius can reach
+    private int lonCellsWithin(double lat, double radiusRadians) {
+        double cosLat = Math.cos(Math.toRadians(lat));
+        if (radiusRadians >= Math.PI / 2 || Math.sin(radiusRadians) >= cosLat) {
+            // The cap reaches a pole, so it spans every longitude
+            return lonColumns;
+        }
+        double spanDegrees = Math.toDegrees(Math.asin(Math.sin(radiusRadians) / cosLat));
+        return (int) Math.ceil(spanDegrees / cellDegrees);
+    }
+    
+    // Columns exactly ring steps from the centre going either way round; none once the ring has wrapped
+    private List<Integer> edgeColumns(int centerLon, int ring) {
+        if (ring == 0 || 2 * ring > lonColumns) {
+            return List.of();
+        }
+        int east = Math.floorMod(centerLon + ring, lonColumns);
+        int west = Math.floorMod(centerLon - ring, lonColumns);
+        return east == west ? List.of(east) : List.of(west, east);
+    }
+    
+    private List<Integer> columnsAround(int centerLon, int reach) {
+        List<Integer> columns = new ArrayList<>();
+        if (wrapsAround(reach)) {
+            for (int column = 0; column < lonColumns; column++) {
+                columns.add(column);
+            }
+            return columns;
+        }
+        for (int dLon = -reach; dLon <= reach; dLon++) {
+            columns.add(Math.floorMod(centerLon + dLon, lonColumns));
+        }
+        return columns;
+    }
+    
+    private void removeFromCell(Entry<T> entry) {
+        // compute/computeIfPresent lock the cell's bin, so a concurrent put can't land in a dropped cell
+        cells.computeIfPresent(cellKey(latCell(entry.lat()), lonCell(entry.lon())), (key, cell) -> {
+            cell.remove(entry.id(), entry);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+    
+    private int latCell(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+    
+    private int lonCell(double lon) {
+        return Math.floorMod((int) Math.floor(lon / cellDegrees), lonColumns);
+    }
+    
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+    
+    public record Entry<T>(long id, double lat, double lon, T value) {
+    }
+    
+    public record Match<T>(Entry<T> entry, double distanceKm) {
+    }
+}
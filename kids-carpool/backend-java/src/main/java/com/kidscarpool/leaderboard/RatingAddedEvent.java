@@ -0,0 +1,5 @@
+package com.kidscarpool.leaderboard;
+
+// Published inside the rating transaction; in-memory standings move only once it commits
+public record RatingAddedEvent(Long ratedId, int stars) {
+}
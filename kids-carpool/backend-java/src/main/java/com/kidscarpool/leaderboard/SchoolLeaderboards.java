@@ -0,0 +1,123 @@
+package com.kidscarpool.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Drivers of each school kept in rank order, so a driver's rating change re-ranks them with a
+ * remove and an insert per school instead of re-sorting every driver.
+ *
+ * <p>The score is a Bayesian average: the driver's ratings plus {@code priorRatings} imaginary
+ * ratings of {@code priorMean}, so one five-star rating does not outrank fifty 4.9 averages.
+ * Drivers without ratings are tracked but not ranked. Not thread-safe: callers serialize access.
+ */
+public class SchoolLeaderboards {
+    
+    private static final Comparator<Entry> RANK = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingInt(Entry::ratingCount).reversed())
+            .thenComparingLong(Entry::driverId);
+    
+    private final double priorRatings;
+    private final double priorMean;
+    
+    // A driver is known once their standing is loaded, even if they have no ratings yet
+    private final Map<Long, Entry> standings = new HashMap<>();
+    private final Map<Long, Set<Long>> schoolsByDriver = new HashMap<>();
+    private final Map<Long, NavigableSet<Entry>> boards = new HashMap<>();
+    
+    public SchoolLeaderboards(double priorRatings, double priorMean) {
+        this.priorRatings = priorRatings;
+        this.priorMean = priorMean;
+    }
+    
+    public boolean hasStanding(long driverId) {
+        return standings.containsKey(driverId);
+    }
+    
+    /** Records that the driver drives for the school; returns whether that school's ranking changed. */
+    public boolean addDriver(long schoolId, long driverId) {
+        if (!schoolsByDriver.computeIfAbsent(driverId, id -> new HashSet<>()).add(schoolId)) {
+            return false;
+        }
+        Entry standing = standings.get(driverId);
+        if (standing == null || standing.ratingCount() == 0) {
+            return false;
+        }
+        boards.computeIfAbsent(schoolId, id -> new TreeSet<>(RANK)).add(standing);
+        return true;
+    }
+    
+    /** Replaces the driver's totals; returns the schools whose ranking changed. */
+    public Set<Long> setStanding(long driverId, int ratingCount, long ratingSum) {
+        Entry previous = standings.get(driverId);
+        if (previous != null && previous.ratingCount() == ratingCount && previous.ratingSum() == ratingSum) {
+            return Set.of();
+        }
+        Entry next = new Entry(driverId, ratingCount, ratingSum, score(ratingCount, ratingSum));
+        standings.put(driverId, next);
+        
+        Set<Long> schools = schoolsByDriver.getOrDefault(driverId, Set.of());
+        for (Long schoolId : schools) {
+            NavigableSet<Entry> board = boards.computeIfAbsent(schoolId, id -> new TreeSet<>(RANK));
+            if (previous != null) {
+                board.remove(previous);
+            }
+            if (ratingCount > 0) {
+                board.add(next);
+            }
+        }
+        return schools;
+    }
+    
+    /** Adds one rating to a known driver; returns the schools whose ranking changed. */
+    public Set<Long> addRating(long driverId, int stars) {
+        Entry standing = standings.get(driverId);
+        if (standing == null) {
+            return Set.of();
+        }
+        return setStanding(driverId, standing.ratingCount() + 1, standing.ratingSum() + stars);
+    }
+    
+    public void removeSchool(long schoolId) {
+        boards.remove(schoolId);
+        for (Set<Long> schools : schoolsByDriver.values()) {
+            schools.remove(schoolId);
+        }
+    }
+    
+    public Set<Long> schools() {
+        return boards.keySet();
+    }
+    
+    public List<Entry> top(long schoolId, int k) {
+        NavigableSet<Entry> board = boards.get(schoolId);
+        if (board == null) {
+            return List.of();
+        }
+        List<Entry> top = new ArrayList<>(Math.min(k, board.size()));
+        Iterator<Entry> it = board.iterator();
+        while (it.hasNext() && top.size() < k) {
+            top.add(it.next());
+        }
+        return top;
+    }
+    
+    private double score(int ratingCount, long ratingSum) {
+        return (ratingSum + priorRatings * priorMean) / (ratingCount + priorRatings);
+    }
+    
+    public record Entry(long driverId, int ratingCount, long ratingSum, double score) {
+        
+        public double average() {
+            return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.kidscarpool.matching;
+
+import com.kidscarpool.geo.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns passengers to vehicles that all drive to one destination, respecting seat counts and
+ * keeping the total detour low. Detour for a passenger is the extra distance the car drives to
+ * pass by their home: d(origin, home) + d(home, destination) - d(origin, destination).
+ *
+ * <p>Each passenger is only considered for their {@code candidatesPerPassenger} cheapest
+ * vehicles, computed in parallel. Candidate pairs are then assigned cheapest-first, and a repair
+ * pass seats leftover passengers by moving an already seated passenger to their next-best car.
+ * The result is a heuristic, not a proven optimum, but it is near-optimal in practice and runs in
+ * roughly O(P·V / cores + P·K·log(P·K)).
+ */
+public class RideMatcher {
+    
+    private static final int PARALLEL_THRESHOLD = 256;
+    
+    private final int candidatesPerPassenger;
+    private final double maxDetourKm;
+    
+    public RideMatcher(int candidatesPerPassenger, double maxDetourKm) {
+        this.candidatesPerPassenger = candidatesPerPassenger;
+        this.maxDetourKm = maxDetourKm;
+    }
+    
+    public Result match(double destLat, double destLon, List<Passenger> passengers, List<Vehicle> vehicles) {
+        int passengerCount = passengers.size();
+        int vehicleCount = vehicles.size();
+        double[] directKm = new double[vehicleCount];
+        for (int v = 0; v < vehicleCount; v++) {
+            Vehicle vehicle = vehicles.get(v);
+            directKm[v] = GeoUtils.haversineKm(vehicle.lat(), vehicle.lon(), destLat, destLon);
+        }
+        
+        // Candidate lists are independent per passenger, which is where the work is
+        IntStream range = IntStream.range(0, passengerCount);
+        if (passengerCount >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        Candidate[][] candidates = new Candidate[passengerCount][];
+        range.forEach(p -> candidates[p] = cheapestVehicles(p, passengers.get(p), vehicles, directKm, destLat, destLon));
+        
+        List<Candidate> edges = new ArrayList<>();
+        for (Candidate[] list : candidates) {
+            edges.addAll(Arrays.asList(list));
+        }
+        edges.sort(Comparator.comparingDouble(Candidate::detourKm));
+        
+        int[] freeSeats = vehicles.stream().mapToInt(Vehicle::seats).toArray();
+        Candidate[] assigned = new Candidate[passengerCount];
+        List<List<Integer>> riders = new ArrayList<>(vehicleCount);
+        for (int v = 0; v < vehicleCount; v++) {
+            riders.add(new ArrayList<>());
+        }
+        
+        for (Candidate edge : edges) {
+            if (assigned[edge.passenger()] == null && freeSeats[edge.vehicle()] > 0) {
+                assign(edge, assigned, freeSeats, riders);
+            }
+        }
+        
+        repair(candidates, assigned, freeSeats, riders);
+        
+        List<Assignment> assignments = new ArrayList<>();
+        List<Long> unassigned = new ArrayList<>();
+        double totalDetour = 0;
+        for (int p = 0; p < passengerCount; p++) {
+            if (assigned[p] == null) {
+                unassigned.add(passengers.get(p).id());
+            } else {
+                assignments.add(new Assignment(passengers.get(p).id(), vehicles.get(assigned[p].vehicle()).id(), assigned[p].detourKm()));
+                totalDetour += assigned[p].detourKm();
+            }
+        }
+        return new Result(assignments, unassigned, totalDetour);
+    }
+    
+    private Candidate[] cheapestVehicles(int p, Passenger passenger, List<Vehicle> vehicles, double[] directKm,
+                                         double destLat, double destLon) {
+        double homeToDest = GeoUtils.haversineKm(passenger.lat(), passenger.lon(), destLat, destLon);
+        Candidate[] best = new Candidate[Math.min(candidatesPerPassenger, vehicles.size())];
+        int size = 0;
+        
+        for (int v = 0; v < vehicles.size(); v++) {
+            Vehicle vehicle = vehicles.get(v);
+            double bound = size == best.length ? Math.min(maxDetourKm, best[size - 1].detourKm()) : maxDetourKm;
+            // Great-circle distance is never shorter than the latitude difference alone, so most
+            // far-away cars are rejected before paying for the trigonometry
+            double minDistance = Math.toRadians(Math.abs(vehicle.lat() - passenger.lat())) * GeoUtils.EARTH_RADIUS_KM;
+            if (minDistance + homeToDest - directKm[v] > bound) {
+                continue;
+            }
+            double detour = GeoUtils.haversineKm(vehicle.lat(), vehicle.lon(), passenger.lat(), passenger.lon())
+                    + homeToDest - directKm[v];
+            if (detour > maxDetourKm || (size == best.length && detour >= best[size - 1].detourKm())) {
+                continue;
+            }
+            // Insertion into a small sorted array beats a heap at these sizes
+            int i = size == best.length ? size - 1 : size++;
+            while (i > 0 && best[i - 1].detourKm() > detour) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = new Candidate(p, v, Math.max(0, detour));
+        }
+        return Arrays.copyOf(best, size);
+    }
+    
+    // Seat an unassigned passenger in a full car by moving one of its riders to a car with room
+    private void repair(Candidate[][] candidates, Candidate[] assigned, int[] freeSeats, List<List<Integer>> riders) {
+        for (int p = 0; p < assigned.length; p++) {
+            if (assigned[p] != null || candidates[p].length == 0) {
+                continue;
+            }
+            Candidate bestIn = null;
+            Candidate bestOut = null;
+            double bestCost = Double.MAX_VALUE;
+            
+            for (Candidate in : candidates[p]) {
+                if (freeSeats[in.vehicle()] > 0) {
+                    bestIn = in;
+                    bestOut = null;
+                    break;
+                }
+                for (int q : riders.get(in.vehicle())) {
+                    for (Candidate out : candidates[q]) {
+                        if (out.vehicle() == in.vehicle() || freeSeats[out.vehicle()] == 0) {
+                            continue;
+                        }
+                        double cost = in.detourKm() + out.detourKm() - assigned[q].detourKm();
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestIn = in;
+                            bestOut = out;
+                        }
+                        break;
+                    }
+                }
+            }
+            
+            if (bestOut != null) {
+                unassign(assigned[bestOut.passenger()], assigned, freeSeats, riders);
+                assign(bestOut, assigned, freeSeats, riders);
+            }
+            if (bestIn != null) {
+                assign(bestIn, assigned, freeSeats, riders);
+            }
+        }
+    }
+    
+    private static void assign(Candidate edge, Candidate[] assigned, int[] freeSeats, List<List<Integer>> riders) {
+        assigned[edge.passenger()] = edge;
+        freeSeats[edge.vehicle()]--;
+        riders.get(edge.vehicle()).add(edge.passenger());
+    }
+    
+    private static void unassign(Candidate edge, Candidate[] assigned, int[] freeSeats, List<List<Integer>> riders) {
+        assigned[edge.passenger()] = null;
+        freeSeats[edge.vehicle()]++;
+        riders.get(edge.vehicle()).remove(Integer.valueOf(edge.passenger()));
+    }
+    
+    public record Passenger(long id, double lat, double lon) {
+    }
+    
+    public record Vehicle(long id, double lat, double lon, int seats) {
+    }
+    
+    public record Assignment(long passengerId, long vehicleId, double detourKm) {
+    }
+    
+    public record Result(List<Assignment> assignments, List<Long> unassignedPassengerIds, double totalDetourKm) {
+    }
+    
+    private record Candidate(int passenger, int vehicle, double detourKm) {
+    }
+}
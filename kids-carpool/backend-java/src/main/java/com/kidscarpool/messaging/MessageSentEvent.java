@@ -0,0 +1,7 @@
+package com.kidscarpool.messaging;
+
+import com.kidscarpool.dto.MessageResponse;
+
+// Published inside the sending transaction; listeners that push to clients wait for the commit
+public record MessageSentEvent(MessageResponse message) {
+}
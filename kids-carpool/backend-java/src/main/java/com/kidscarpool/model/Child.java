@@ -33,6 +33,15 @@ public class Child {
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
+    @Column(name = "home_address")
+    private String homeAddress;
+    
+    @Column(name = "home_latitude")
+    private Double homeLatitude;
+    
+    @Column(name = "home_longitude")
+    private Double homeLongitude;
+    
     @Column(name = "emergency_contact_name")
     private String emergencyContactName;
     
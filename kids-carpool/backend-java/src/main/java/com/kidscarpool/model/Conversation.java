@@ -0,0 +1,57 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "conversations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Conversation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Participants are stored ordered so each pair has exactly one row
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+    
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+    
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+    
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
+    // Unread messages addressed to each participant
+    @Column(name = "unread_low", nullable = false)
+    private Integer unreadLow = 0;
+    
+    @Column(name = "unread_high", nullable = false)
+    private Integer unreadHigh = 0;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public boolean hasParticipant(Long userId) {
+        return userLowId.equals(userId) || userHighId.equals(userId);
+    }
+    
+    public Long otherParticipant(Long userId) {
+        return userLowId.equals(userId) ? userHighId : userLowId;
+    }
+    
+    public int unreadFor(Long userId) {
+        return userLowId.equals(userId) ? unreadLow : unreadHigh;
+    }
+}
@@ -0,0 +1,21 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+
+// Stores dates as ISO-8601 text ("2024-09-03") so SQLite compares and range-scans them in calendar order
+@Converter
+public class IsoLocalDateConverter implements AttributeConverter<LocalDate, String> {
+    
+    @Override
+    public String convertToDatabaseColumn(LocalDate date) {
+        return date == null ? null : date.toString();
+    }
+    
+    @Override
+    public LocalDate convertToEntityAttribute(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+// Stores times as zero-padded "HH:mm" text so SQLite compares and range-scans them in clock order
+@Converter
+public class IsoLocalTimeConverter implements AttributeConverter<LocalTime, String> {
+    
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    
+    @Override
+    public String convertToDatabaseColumn(LocalTime time) {
+        return time == null ? null : time.format(FORMAT);
+    }
+    
+    @Override
+    public LocalTime convertToEntityAttribute(String value) {
+        return value == null ? null : LocalTime.parse(value);
+    }
+}
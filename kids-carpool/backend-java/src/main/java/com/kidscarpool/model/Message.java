@@ -25,6 +25,9 @@ public class Message {
     @Column(name = "receiver_id", nullable = false)
     private Long receiverId;
     
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+    
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
     
@@ -0,0 +1,45 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Written only through RatingSummaryRepository's SQL updates, never saved as an entity
+@Entity
+@Table(name = "rating_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummary {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private Integer ratingSum;
+    
+    @Column(name = "stars_1", nullable = false)
+    private Integer stars1;
+    
+    @Column(name = "stars_2", nullable = false)
+    private Integer stars2;
+    
+    @Column(name = "stars_3", nullable = false)
+    private Integer stars3;
+    
+    @Column(name = "stars_4", nullable = false)
+    private Integer stars4;
+    
+    @Column(name = "stars_5", nullable = false)
+    private Integer stars5;
+    
+    // Index 0 is one star
+    public int[] histogram() {
+        return new int[] {stars1, stars2, stars3, stars4, stars5};
+    }
+}
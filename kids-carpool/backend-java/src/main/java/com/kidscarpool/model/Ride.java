@@ -5,12 +5,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
+// Rides whose legacy date or time V3 could not normalise are listed in ride_datetime_quarantine
+// and left out of every read until they are fixed by hand
 @Entity
 @Table(name = "rides")
+@SQLRestriction("id NOT IN (SELECT q.ride_id FROM ride_datetime_quarantine q)")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,15 +32,23 @@ public class Ride {
     @Column(name = "school_id", nullable = false)
     private Long schoolId;
     
+    @Convert(converter = IsoLocalDateConverter.class)
     @Column(name = "ride_date", nullable = false)
-    private String rideDate;
+    private LocalDate rideDate;
     
+    @Convert(converter = IsoLocalTimeConverter.class)
     @Column(name = "ride_time", nullable = false)
-    private String rideTime;
+    private LocalTime rideTime;
     
     @Column(name = "pickup_location", nullable = false)
     private String pickupLocation;
     
+    @Column(name = "pickup_latitude")
+    private Double pickupLatitude;
+    
+    @Column(name = "pickup_longitude")
+    private Double pickupLongitude;
+    
     @Column(name = "dropoff_location", nullable = false)
     private String dropoffLocation;
     
@@ -47,6 +61,10 @@ public class Ride {
     @Column(columnDefinition = "TEXT")
     private String notes;
     
+    // The driver agrees to seat waitlisted children as seats free up, without reviewing them
+    @Column(name = "waitlist_auto_accept", nullable = false)
+    private Boolean waitlistAutoAccept = false;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private RideStatus status = RideStatus.ACTIVE;
@@ -32,6 +32,12 @@ public class RideRequest {
     @Column(name = "pickup_address", nullable = false)
     private String pickupAddress;
     
+    @Column(name = "pickup_latitude")
+    private Double pickupLatitude;
+    
+    @Column(name = "pickup_longitude")
+    private Double pickupLongitude;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private RequestStatus status = RequestStatus.PENDING;
@@ -0,0 +1,34 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ride_tracks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideTrack {
+    
+    @Id
+    @Column(name = "ride_id")
+    private Long rideId;
+    
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+    
+    @Column(name = "original_point_count", nullable = false)
+    private Integer originalPointCount;
+    
+    @Column(nullable = false)
+    private byte[] encoded;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -42,10 +42,11 @@ public class User {
     @Column(name = "background_check_completed")
     private Boolean backgroundCheckCompleted = false;
     
-    @Column(name = "average_rating")
+    // Maintained in SQL from rating_summaries; saving a stale entity must not overwrite them
+    @Column(name = "average_rating", updatable = false)
     private Double averageRating = 0.0;
     
-    @Column(name = "total_ratings")
+    @Column(name = "total_ratings", updatable = false)
     private Integer totalRatings = 0;
     
     @CreationTimestamp
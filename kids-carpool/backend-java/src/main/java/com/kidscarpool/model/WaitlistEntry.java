@@ -0,0 +1,44 @@
+package com.kidscarpool.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// A ride request waiting for a seat; ids increase, so the lowest id on a ride is the head of its queue
+@Entity
+@Table(name = "ride_waitlist")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "ride_id", nullable = false)
+    private Long rideId;
+    
+    @Column(name = "requester_id", nullable = false)
+    private Long requesterId;
+    
+    @Column(name = "child_id", nullable = false)
+    private Long childId;
+    
+    @Column(name = "pickup_address", nullable = false)
+    private String pickupAddress;
+    
+    @Column(name = "pickup_latitude")
+    private Double pickupLatitude;
+    
+    @Column(name = "pickup_longitude")
+    private Double pickupLongitude;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -9,4 +9,5 @@ import java.util.List;
 @Repository
 public interface ChildRepository extends JpaRepository<Child, Long> {
     List<Child> findByUserId(Long userId);
+    List<Child> findBySchoolId(Long schoolId);
 }
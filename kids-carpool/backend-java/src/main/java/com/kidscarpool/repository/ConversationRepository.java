@@ -0,0 +1,49 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.Conversation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+    Optional<Conversation> findByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+    
+    // Two first messages between the same pair may race here; the loser keeps the winner's row
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user_low_id, user_high_id, unread_low, unread_high, created_at) " +
+            "VALUES (:userLowId, :userHighId, 0, 0, :createdAt) " +
+            "ON CONFLICT (user_low_id, user_high_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userLowId") Long userLowId, @Param("userHighId") Long userHighId,
+                       @Param("createdAt") LocalDateTime createdAt);
+    
+    @Query("SELECT c FROM Conversation c WHERE (c.userLowId = :userId OR c.userHighId = :userId) " +
+            "AND c.lastMessageId < :before ORDER BY c.lastMessageId DESC")
+    List<Conversation> findUserConversationsBefore(@Param("userId") Long userId, @Param("before") Long before, Limit limit);
+    
+    // Only moves forward, so concurrent senders can't leave an older message as the latest
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastMessageAt = :sentAt " +
+            "WHERE c.id = :id AND (c.lastMessageId IS NULL OR c.lastMessageId < :messageId)")
+    int advanceLastMessage(@Param("id") Long id, @Param("messageId") Long messageId, @Param("sentAt") LocalDateTime sentAt);
+    
+    // Counters change in place so concurrent sends and reads never overwrite each other.
+    // A conversation with yourself only uses the low counter.
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+            "c.unreadLow = c.unreadLow + CASE WHEN c.userLowId = :userId THEN :delta ELSE 0 END, " +
+            "c.unreadHigh = c.unreadHigh + CASE WHEN c.userLowId <> :userId AND c.userHighId = :userId THEN :delta ELSE 0 END " +
+            "WHERE c.id = :id")
+    int addUnread(@Param("id") Long id, @Param("userId") Long userId, @Param("delta") Integer delta);
+    
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.userLowId = :userId THEN c.unreadLow ELSE c.unreadHigh END), 0) " +
+            "FROM Conversation c WHERE c.userLowId = :userId OR c.userHighId = :userId")
+    Long countUnread(@Param("userId") Long userId);
+}
@@ -1,9 +1,14 @@
 package com.kidscarpool.repository;
 
 import com.kidscarpool.model.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,4 +16,35 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findBySenderId(Long senderId);
     List<Message> findByReceiverId(Long receiverId);
     List<Message> findBySenderIdOrReceiverId(Long senderId, Long receiverId);
+    
+    @Query("SELECT m FROM Message m WHERE (m.senderId = :userId OR m.receiverId = :userId) " +
+            "AND m.id < :before ORDER BY m.id DESC")
+    List<Message> findUserMessagesBefore(@Param("userId") Long userId, @Param("before") Long before, Limit limit);
+    
+    List<Message> findByConversationIdOrderByCreatedAtDescIdDesc(Long conversationId, Limit limit);
+    
+    // Keyset over (created_at, id) so messages sharing a timestamp are neither skipped nor repeated
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+            "AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findConversationMessagesBefore(@Param("conversationId") Long conversationId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Limit limit);
+    
+    // Ranked by bm25 on content only; the owners column just restricts the match to the caller
+    @Query(value = "SELECT m.* FROM messages_fts JOIN messages m ON m.id = messages_fts.rowid " +
+            "WHERE messages_fts MATCH :match " +
+            "ORDER BY bm25(messages_fts, 1.0, 0.0), m.id DESC LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Message> search(@Param("match") String match, @Param("limit") Integer limit, @Param("offset") Integer offset);
+    
+    // Conditional, so of two concurrent reads of the same message only one sees a row change
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.id = :id AND m.isRead = false")
+    int markRead(@Param("id") Long id);
+    
+    // Set-based so opening a long thread is one statement, not one round trip per message
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.conversationId = :conversationId " +
+            "AND m.receiverId = :userId AND m.isRead = false AND m.id <= :upTo")
+    int markConversationRead(@Param("conversationId") Long conversationId, @Param("userId") Long userId, @Param("upTo") Long upTo);
 }
@@ -1,14 +1,31 @@
 package com.kidscarpool.repository;
 
 import com.kidscarpool.model.Rating;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     List<Rating> findByRatedId(Long ratedId);
+    List<Rating> findByRatedIdAndIdLessThanOrderByIdDesc(Long ratedId, Long id, Limit limit);
     List<Rating> findByRaterId(Long raterId);
     List<Rating> findByRideId(Long rideId);
+    
+    @Query("SELECT r.ratedId AS ratedId, r.rating AS stars, COUNT(r) AS ratings FROM Rating r " +
+            "WHERE r.ratedId IN :ratedIds GROUP BY r.ratedId, r.rating")
+    List<StarCount> countStarsByRatedIds(@Param("ratedIds") Collection<Long> ratedIds);
+    
+    interface StarCount {
+        Long getRatedId();
+        
+        Integer getStars();
+        
+        Long getRatings();
+    }
 }
@@ -0,0 +1,43 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.RatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RatingSummaryRepository extends JpaRepository<RatingSummary, Long> {
+    
+    // One statement regardless of how many ratings the user already has
+    @Modifying
+    @Query(value = "INSERT INTO rating_summaries (user_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "VALUES (:userId, 1, :stars, :stars = 1, :stars = 2, :stars = 3, :stars = 4, :stars = 5) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "rating_count = rating_count + 1, rating_sum = rating_sum + excluded.rating_sum, " +
+            "stars_1 = stars_1 + excluded.stars_1, stars_2 = stars_2 + excluded.stars_2, stars_3 = stars_3 + excluded.stars_3, " +
+            "stars_4 = stars_4 + excluded.stars_4, stars_5 = stars_5 + excluded.stars_5", nativeQuery = true)
+    int addRating(@Param("userId") Long userId, @Param("stars") Integer stars);
+    
+    // Rebuilds the summary from the ratings themselves; used to repair drift
+    @Modifying
+    @Query(value = "INSERT INTO rating_summaries (user_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) " +
+            "SELECT :userId, count(*), coalesce(sum(rating), 0), coalesce(sum(rating = 1), 0), coalesce(sum(rating = 2), 0), " +
+            "coalesce(sum(rating = 3), 0), coalesce(sum(rating = 4), 0), coalesce(sum(rating = 5), 0) " +
+            "FROM ratings WHERE rated_id = :userId " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "rating_count = excluded.rating_count, rating_sum = excluded.rating_sum, " +
+            "stars_1 = excluded.stars_1, stars_2 = excluded.stars_2, stars_3 = excluded.stars_3, " +
+            "stars_4 = excluded.stars_4, stars_5 = excluded.stars_5", nativeQuery = true)
+    int recompute(@Param("userId") Long userId);
+    
+    // Copies the summary onto the user's public average and count
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+            "total_ratings = coalesce((SELECT s.rating_count FROM rating_summaries s WHERE s.user_id = :userId), 0), " +
+            "average_rating = coalesce((SELECT 1.0 * s.rating_sum / s.rating_count FROM rating_summaries s " +
+            "WHERE s.user_id = :userId AND s.rating_count > 0), 0.0) " +
+            "WHERE id = :userId", nativeQuery = true)
+    int syncUser(@Param("userId") Long userId);
+}
@@ -1,7 +1,11 @@
 package com.kidscarpool.repository;
 
+import com.kidscarpool.model.Ride;
 import com.kidscarpool.model.RideLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +13,12 @@ import java.util.List;
 @Repository
 public interface RideLocationRepository extends JpaRepository<RideLocation, Long> {
     List<RideLocation> findByRideId(Long rideId);
+    List<RideLocation> findByRideIdOrderByCreatedAtAsc(Long rideId);
+    
+    @Query("SELECT DISTINCT l.rideId FROM RideLocation l WHERE l.rideId IN (SELECT r.id FROM Ride r WHERE r.status = :status)")
+    List<Long> findRideIdsWithLocations(@Param("status") Ride.RideStatus status);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RideLocation l WHERE l.rideId = :rideId")
+    int deleteByRideId(@Param("rideId") Long rideId);
 }
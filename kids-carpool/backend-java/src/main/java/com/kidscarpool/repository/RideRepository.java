@@ -1,14 +1,68 @@
 package com.kidscarpool.repository;
 
 import com.kidscarpool.model.Ride;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RideRepository extends JpaRepository<Ride, Long> {
+public interface RideRepository extends JpaRepository<Ride, Long>, JpaSpecificationExecutor<Ride> {
     List<Ride> findByUserId(Long userId);
     List<Ride> findBySchoolId(Long schoolId);
     List<Ride> findByStatus(Ride.RideStatus status);
+    List<Ride> findBySchoolIdAndStatusAndRideDate(Long schoolId, Ride.RideStatus status, LocalDate rideDate);
+    List<Ride> findBySchoolIdAndIdLessThanOrderByIdDesc(Long schoolId, Long id, Limit limit);
+    List<Ride> findByStatusAndIdLessThanOrderByIdDesc(Ride.RideStatus status, Long id, Limit limit);
+    
+    // Seat accounting is done in the database so concurrent accepts can't overbook a ride
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats - 1 WHERE r.id = :id AND r.availableSeats > 0")
+    int reserveSeat(@Param("id") Long id);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats + 1 WHERE r.id = :id AND r.availableSeats < r.totalSeats")
+    int releaseSeat(@Param("id") Long id);
+    
+    // Net seat change for a whole batch; a negative count gives seats back. Returns 0 if it would not fit
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats - :seats " +
+            "WHERE r.id = :id AND r.availableSeats - :seats >= 0 AND r.availableSeats - :seats <= r.totalSeats")
+    int takeSeats(@Param("id") Long id, @Param("seats") Integer seats);
+    
+    // Changes the seat total and moves the free count by the same amount; returns 0 if fewer seats than are taken
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats + :totalSeats - r.totalSeats, r.totalSeats = :totalSeats " +
+            "WHERE r.id = :id AND r.availableSeats + :totalSeats - r.totalSeats >= 0")
+    int resizeSeats(@Param("id") Long id, @Param("totalSeats") Integer totalSeats);
+    
+    // Status changes leave the seat columns to the conditional updates above; like save(), runs in its own transaction
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.status = :status, r.updatedAt = :now WHERE r.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") Ride.RideStatus status, @Param("now") LocalDateTime now);
+    
+    // Only the flag is written, so a concurrent seat update can't be overwritten with a stale count
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Ride r SET r.waitlistAutoAccept = :enabled, r.updatedAt = :now WHERE r.id = :id")
+    int setWaitlistAutoAccept(@Param("id") Long id, @Param("enabled") Boolean enabled, @Param("now") LocalDateTime now);
+    
+    // Every school each driver has offered a ride for, read off the (school_id, user_id) index
+    @Query("SELECT DISTINCT r.schoolId AS schoolId, r.userId AS driverId FROM Ride r")
+    Stream<DriverSchool> streamDriverSchools();
+    
+    interface DriverSchool {
+        Long getSchoolId();
+        
+        Long getDriverId();
+    }
 }
@@ -1,13 +1,86 @@
 package com.kidscarpool.repository;
 
 import com.kidscarpool.model.RideRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RideRequestRepository extends JpaRepository<RideRequest, Long> {
     List<RideRequest> findByRideId(Long rideId);
+    List<RideRequest> findByRideIdAndStatus(Long rideId, RideRequest.RequestStatus status);
+    boolean existsByRideIdAndRequesterIdAndStatus(Long rideId, Long requesterId, RideRequest.RequestStatus status);
+    boolean existsByRideIdAndChildIdAndStatusIn(Long rideId, Long childId, Collection<RideRequest.RequestStatus> statuses);
     List<RideRequest> findByRequesterId(Long requesterId);
+    List<RideRequest> findByRideIdInAndStatusIn(Collection<Long> rideIds, Collection<RideRequest.RequestStatus> statuses);
+    List<RideRequest> findByRequesterIdAndIdLessThanOrderByIdDesc(Long requesterId, Long id, Limit limit);
+    
+    // Only moves the request if it is still in the expected status; returns 0 if someone else got there first
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RideRequest rr SET rr.status = :newStatus, rr.updatedAt = :now " +
+            "WHERE rr.id = :id AND rr.status = :expectedStatus")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expectedStatus") RideRequest.RequestStatus expectedStatus,
+                            @Param("newStatus") RideRequest.RequestStatus newStatus,
+                            @Param("now") LocalDateTime now);
+    
+    // Batch form of compareAndSetStatus; the count tells whether every request was still in the expected status
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RideRequest rr SET rr.status = :newStatus, rr.updatedAt = :now " +
+            "WHERE rr.id IN :ids AND rr.status = :expectedStatus")
+    int compareAndSetStatuses(@Param("ids") Collection<Long> ids,
+                              @Param("expectedStatus") RideRequest.RequestStatus expectedStatus,
+                              @Param("newStatus") RideRequest.RequestStatus newStatus,
+                              @Param("now") LocalDateTime now);
+    
+    // A ride's requests with the child and requester they refer to, in one statement
+    @Query("SELECT rr.id AS id, rr.rideId AS rideId, rr.status AS status, rr.pickupAddress AS pickupAddress, " +
+            "rr.pickupLatitude AS pickupLatitude, rr.pickupLongitude AS pickupLongitude, rr.createdAt AS createdAt, " +
+            "rr.childId AS childId, c.name AS childName, c.age AS childAge, c.grade AS childGrade, " +
+            "rr.requesterId AS requesterId, u.fullName AS requesterName, u.averageRating AS requesterRating, " +
+            "u.totalRatings AS requesterTotalRatings " +
+            "FROM RideRequest rr " +
+            "LEFT JOIN Child c ON c.id = rr.childId " +
+            "LEFT JOIN User u ON u.id = rr.requesterId " +
+            "WHERE rr.rideId = :rideId ORDER BY rr.id")
+    List<RequestDetail> findDetailsByRideId(@Param("rideId") Long rideId);
+    
+    interface RequestDetail {
+        Long getId();
+        
+        Long getRideId();
+        
+        RideRequest.RequestStatus getStatus();
+        
+        String getPickupAddress();
+        
+        Double getPickupLatitude();
+        
+        Double getPickupLongitude();
+        
+        LocalDateTime getCreatedAt();
+        
+        Long getChildId();
+        
+        String getChildName();
+        
+        Integer getChildAge();
+        
+        String getChildGrade();
+        
+        Long getRequesterId();
+        
+        String getRequesterName();
+        
+        Double getRequesterRating();
+        
+        Integer getRequesterTotalRatings();
+    }
 }
@@ -0,0 +1,43 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.Ride;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Filters for RideRepository searches; each one is a no-op when its argument is null.
+// School, status and date line up with idx_rides_school_status_date_time.
+public final class RideSpecifications {
+    
+    private RideSpecifications() {
+    }
+    
+    public static Specification<Ride> atSchool(Long schoolId) {
+        return (root, query, cb) -> schoolId == null ? null : cb.equal(root.get("schoolId"), schoolId);
+    }
+    
+    public static Specification<Ride> withStatus(Ride.RideStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<Ride> onOrAfter(LocalDate from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("rideDate"), from);
+    }
+    
+    public static Specification<Ride> onOrBefore(LocalDate to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThanOrEqualTo(root.get("rideDate"), to);
+    }
+    
+    public static Specification<Ride> departingFrom(LocalTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("rideTime"), from);
+    }
+    
+    public static Specification<Ride> departingBy(LocalTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThanOrEqualTo(root.get("rideTime"), to);
+    }
+    
+    public static Specification<Ride> withFreeSeats(Integer minSeats) {
+        return (root, query, cb) -> minSeats == null ? null : cb.greaterThanOrEqualTo(root.get("availableSeats"), minSeats);
+    }
+}
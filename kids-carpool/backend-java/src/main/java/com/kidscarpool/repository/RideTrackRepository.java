@@ -0,0 +1,9 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.RideTrack;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RideTrackRepository extends JpaRepository<RideTrack, Long> {
+}
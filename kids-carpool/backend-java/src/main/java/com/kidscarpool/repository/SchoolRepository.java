@@ -1,9 +1,13 @@
 package com.kidscarpool.repository;
 
 import com.kidscarpool.model.School;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface SchoolRepository extends JpaRepository<School, Long> {
+    List<School> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
@@ -0,0 +1,23 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    List<WaitlistEntry> findByRideIdOrderByIdAsc(Long rideId);
+    Optional<WaitlistEntry> findFirstByRideIdOrderByIdAsc(Long rideId);
+    boolean existsByRideIdAndChildId(Long rideId, Long childId);
+    long countByRideIdAndIdLessThanEqual(Long rideId, Long id);
+    
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.rideId = :rideId")
+    int deleteAllByRide(@Param("rideId") Long rideId);
+}
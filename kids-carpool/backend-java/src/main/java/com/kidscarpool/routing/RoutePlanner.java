@@ -0,0 +1,295 @@
+package com.kidscarpool.routing;
+
+import com.kidscarpool.geo.GeoUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Orders the pickup stops of one car that ends at a fixed destination, such as a school.
+ *
+ * <p>Every stop has the same time window: the child must reach the destination by the deadline
+ * and may not spend more than {@code maxOnboardMinutes} in the car. A route that breaks a window
+ * is charged a heavy per-minute penalty on top of its distance, so the shortest on-time route wins
+ * whenever one exists. Up to {@value #EXACT_LIMIT} stops every order is tried (with pruning).
+ * Larger cars run 2-opt and relocate moves from several starts in parallel until nothing improves.
+ * Both phases stop at the time budget and return the best route found so far; a plan is only
+ * reported as exhaustive when the exact search finished.
+ */
+public class RoutePlanner {
+    
+    private static final int EXACT_LIMIT = 7;
+    private static final double PENALTY_KM_PER_MINUTE = 100;
+    private static final double EPSILON = 1e-9;
+    private static final long SEED = 42;
+    
+    private final double minutesPerKm;
+    private final double stopMinutes;
+    private final double maxOnboardMinutes;
+    private final long timeBudgetNanos;
+    private final int starts;
+    
+    public RoutePlanner(double speedKmh, double stopMinutes, double maxOnboardMinutes, Duration timeBudget, int starts) {
+        this.minutesPerKm = 60.0 / speedKmh;
+        this.stopMinutes = stopMinutes;
+        this.maxOnboardMinutes = maxOnboardMinutes;
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.starts = Math.max(1, starts);
+    }
+    
+    /**
+     * Plans the route. Times are minutes after midnight; {@code origin} may be null, in which case
+     * the car starts at the first stop, and {@code deadlineMinute} may be null for no deadline.
+     */
+    public Plan plan(Point origin, List<Stop> stops, Point destination, double departureMinute, Double deadlineMinute) {
+        long deadlineNanos = System.nanoTime() + timeBudgetNanos;
+        Problem problem = new Problem(origin, stops, destination, departureMinute, deadlineMinute);
+        
+        if (stops.size() > EXACT_LIMIT) {
+            return problem.toPlan(localSearch(problem, deadlineNanos), false);
+        }
+        // Seeded with a locally improved route so the pruning below bites from the start
+        int n = problem.size;
+        int[] best = improve(problem, initialOrder(problem, 0), deadlineNanos);
+        double[] bestCost = {problem.cost(best)};
+        boolean finished = extend(problem, new int[n], new boolean[n], 0, 0, best, bestCost, deadlineNanos);
+        return problem.toPlan(best, finished);
+    }
+    
+    /**
+     * Distance only grows as stops are added, so a prefix already longer than the best route is
+     * dropped. Returns false if the time budget ran out before every order was covered.
+     */
+    private boolean extend(Problem problem, int[] order, boolean[] used, int depth, double km,
+                           int[] best, double[] bestCost, long deadlineNanos) {
+        int n = problem.size;
+        if (depth == n) {
+            double cost = problem.cost(order);
+            if (cost < bestCost[0] - EPSILON) {
+                bestCost[0] = cost;
+                System.arraycopy(order, 0, best, 0, n);
+            }
+            return true;
+        }
+        // The subtrees below the first few levels are small, so checking the clock here is enough
+        if (depth <= 2 && System.nanoTime() >= deadlineNanos) {
+            return false;
+        }
+        for (int next = 0; next < n; next++) {
+            if (used[next]) {
+                continue;
+            }
+            double legKm = depth == 0 ? problem.fromOrigin[next] : problem.between[order[depth - 1]][next];
+            if (km + legKm + problem.toDestination[next] >= bestCost[0]) {
+                continue;
+            }
+            used[next] = true;
+            order[depth] = next;
+            boolean finished = extend(problem, order, used, depth + 1, km + legKm, best, bestCost, deadlineNanos);
+            used[next] = false;
+            if (!finished) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int[] localSearch(Problem problem, long deadlineNanos) {
+        return IntStream.range(0, starts)
+                .parallel()
+                .mapToObj(start -> improve(problem, initialOrder(problem, start), deadlineNanos))
+                .min(Comparator.comparingDouble(problem::cost))
+                .orElseThrow();
+    }
+    
+    // Start 0 is nearest-neighbour from the origin, the others are seeded shuffles
+    private int[] initialOrder(Problem problem, int start) {
+        int n = problem.size;
+        int[] order = new int[n];
+        if (start > 0) {
+            Random random = new Random(SEED + start);
+            for (int i = 0; i < n; i++) {
+                int j = random.nextInt(i + 1);
+                order[i] = order[j];
+                order[j] = i;
+            }
+            return order;
+        }
+        
+        boolean[] used = new boolean[n];
+        for (int depth = 0; depth < n; depth++) {
+            int nearest = -1;
+            for (int next = 0; next < n; next++) {
+                if (used[next]) {
+                    continue;
+                }
+                double km = depth == 0 ? problem.fromOrigin[next] : problem.between[order[depth - 1]][next];
+                double nearestKm = nearest < 0 ? Double.MAX_VALUE
+                        : depth == 0 ? problem.fromOrigin[nearest] : problem.between[order[depth - 1]][nearest];
+                if (km < nearestKm) {
+                    nearest = next;
+                }
+            }
+            used[nearest] = true;
+            order[depth] = nearest;
+        }
+        return order;
+    }
+    
+    private int[] improve(Problem problem, int[] order, long deadlineNanos) {
+        int n = order.length;
+        double cost = problem.cost(order);
+        int[] candidate = new int[n];
+        boolean improved = true;
+        
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = false;
+            
+            // 2-opt: reverse the segment i..j
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    System.arraycopy(order, 0, candidate, 0, n);
+                    reverse(candidate, i, j);
+                    double candidateCost = problem.cost(candidate);
+                    if (candidateCost < cost - EPSILON) {
+                        System.arraycopy(candidate, 0, order, 0, n);
+                        cost = candidateCost;
+                        improved = true;
+                    }
+                }
+            }
+            
+            // Relocate: move the stop at i to position j
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i == j) {
+                        continue;
+                    }
+                    relocate(order, candidate, i, j);
+                    double candidateCost = problem.cost(candidate);
+                    if (candidateCost < cost - EPSILON) {
+                        System.arraycopy(candidate, 0, order, 0, n);
+                        cost = candidateCost;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+    
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int tmp = order[from];
+            order[from++] = order[to];
+            order[to--] = tmp;
+        }
+    }
+    
+    private static void relocate(int[] order, int[] target, int from, int to) {
+        int moved = order[from];
+        int k = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == from) {
+                continue;
+            }
+            if (k == to) {
+                target[k++] = moved;
+            }
+            target[k++] = order[i];
+        }
+        if (k == to) {
+            target[k] = moved;
+        }
+    }
+    
+    private class Problem {
+        final List<Stop> stops;
+        final int size;
+        final double[] fromOrigin;
+        final double[] toDestination;
+        final double[][] between;
+        final double departureMinute;
+        final Double deadlineMinute;
+        
+        Problem(Point origin, List<Stop> stops, Point destination, double departureMinute, Double deadlineMinute) {
+            this.stops = stops;
+            this.size = stops.size();
+            this.departureMinute = departureMinute;
+            this.deadlineMinute = deadlineMinute;
+            fromOrigin = new double[size];
+            toDestination = new double[size];
+            between = new double[size][size];
+            for (int i = 0; i < size; i++) {
+                Stop stop = stops.get(i);
+                fromOrigin[i] = origin == null ? 0 : GeoUtils.haversineKm(origin.lat(), origin.lon(), stop.lat(), stop.lon());
+                toDestination[i] = GeoUtils.haversineKm(stop.lat(), stop.lon(), destination.lat(), destination.lon());
+                for (int j = 0; j < i; j++) {
+                    Stop other = stops.get(j);
+                    between[i][j] = between[j][i] = GeoUtils.haversineKm(stop.lat(), stop.lon(), other.lat(), other.lon());
+                }
+            }
+        }
+        
+        // Walks the route backwards so each child's time in the car is known without a scratch array
+        double cost(int[] order) {
+            if (size == 0) {
+                return 0;
+            }
+            double km = toDestination[order[size - 1]];
+            double onboard = km * minutesPerKm + stopMinutes;
+            double overOnboard = Math.max(0, onboard - maxOnboardMinutes);
+            for (int k = size - 2; k >= 0; k--) {
+                double legKm = between[order[k]][order[k + 1]];
+                km += legKm;
+                onboard += legKm * minutesPerKm + stopMinutes;
+                overOnboard += Math.max(0, onboard - maxOnboardMinutes);
+            }
+            km += fromOrigin[order[0]];
+            double arrival = departureMinute + fromOrigin[order[0]] * minutesPerKm + onboard;
+            return km + PENALTY_KM_PER_MINUTE * (lateMinutes(arrival) + overOnboard);
+        }
+        
+        double lateMinutes(double arrivalMinute) {
+            return deadlineMinute == null ? 0 : Math.max(0, arrivalMinute - deadlineMinute);
+        }
+        
+        Plan toPlan(int[] order, boolean exhaustive) {
+            List<ScheduledStop> scheduled = new ArrayList<>(size);
+            double[] pickupMinutes = new double[size];
+            double minute = departureMinute;
+            double km = 0;
+            for (int k = 0; k < size; k++) {
+                double legKm = k == 0 ? fromOrigin[order[0]] : between[order[k - 1]][order[k]];
+                km += legKm;
+                minute += legKm * minutesPerKm;
+                pickupMinutes[k] = minute;
+                minute += stopMinutes;
+            }
+            if (size > 0) {
+                km += toDestination[order[size - 1]];
+                minute += toDestination[order[size - 1]] * minutesPerKm;
+            }
+            for (int k = 0; k < size; k++) {
+                scheduled.add(new ScheduledStop(stops.get(order[k]), pickupMinutes[k], minute - pickupMinutes[k]));
+            }
+            return new Plan(scheduled, minute, km, lateMinutes(minute), exhaustive);
+        }
+    }
+    
+    public record Point(double lat, double lon) {
+    }
+    
+    public record Stop(long id, double lat, double lon) {
+    }
+    
+    public record ScheduledStop(Stop stop, double pickupMinute, double onboardMinutes) {
+    }
+    
+    public record Plan(List<ScheduledStop> stops, double arrivalMinute, double totalKm, double lateMinutes, boolean exhaustive) {
+    }
+}
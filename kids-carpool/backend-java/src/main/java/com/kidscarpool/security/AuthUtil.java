@@ -1,7 +1,7 @@
 package com.kidscarpool.security;
 
 import com.kidscarpool.model.User;
-import com.kidscarpool.repository.UserRepository;
+import com.kidscarpool.service.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -10,12 +10,21 @@ import org.springframework.stereotype.Component;
 public class AuthUtil {
     
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
     
     public Long getUserIdFromAuthentication(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUserId();
+        }
+        
         String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found in database"));
         return user.getId();
     }
+    
+    public boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
 }
@@ -0,0 +1,121 @@
+package com.kidscarpool.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+
+// Sliding-window limits checked before any password is hashed. A client address is limited on all
+// of its attempts. An account is locked quickly by failed logins from one address, and only at a
+// much higher count by failures from any address, which still stops guessing spread over many
+// addresses without letting one client lock the owner out. Idle windows age out of the caches on their own.
+@Component
+public class LoginAttemptLimiter {
+    
+    @Value("${auth.rate-limit.window-seconds:300}")
+    private long windowSeconds;
+    
+    @Value("${auth.rate-limit.account-max-failures:10}")
+    private int accountMaxFailures;
+    
+    @Value("${auth.rate-limit.account-any-address-max-failures:100}")
+    private int accountAnyAddressMaxFailures;
+    
+    @Value("${auth.rate-limit.ip-max-attempts:50}")
+    private int ipMaxAttempts;
+    
+    @Value("${auth.rate-limit.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+    
+    // Keyed by account and client address
+    private Cache<String, SlidingWindow> failureWindows;
+    
+    // Keyed by account alone
+    private Cache<String, SlidingWindow> accountWindows;
+    
+    private Cache<String, SlidingWindow> ipWindows;
+    
+    @PostConstruct
+    public void init() {
+        failureWindows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+        accountWindows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+        ipWindows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+    
+    public void checkAccount(String account, String ipAddress) {
+        SlidingWindow failures = failureWindows.getIfPresent(failureKey(account, ipAddress));
+        SlidingWindow anyAddress = accountWindows.getIfPresent(accountKey(account));
+        if ((failures != null && failures.isFull(windowMillis()))
+                || (anyAddress != null && anyAddress.isFull(windowMillis()))) {
+            throw new TooManyAttemptsException("Too many failed attempts for this account, please try again later");
+        }
+    }
+    
+    public void recordFailure(String account, String ipAddress) {
+        failureWindows.get(failureKey(account, ipAddress), k -> new SlidingWindow(accountMaxFailures))
+                .tryAcquire(windowMillis());
+        accountWindows.get(accountKey(account), k -> new SlidingWindow(accountAnyAddressMaxFailures))
+                .tryAcquire(windowMillis());
+    }
+    
+    public void recordSuccess(String account, String ipAddress) {
+        failureWindows.invalidate(failureKey(account, ipAddress));
+        accountWindows.invalidate(accountKey(account));
+    }
+    
+    public void checkClient(String ipAddress) {
+        if (!ipWindows.get(ipAddress, k -> new SlidingWindow(ipMaxAttempts)).tryAcquire(windowMillis())) {
+            throw new TooManyAttemptsException("Too many attempts from this address, please try again later");
+        }
+    }
+    
+    private static String failureKey(String account, String ipAddress) {
+        return accountKey(account) + "|" + ipAddress;
+    }
+    
+    private static String accountKey(String account) {
+        return account.trim().toLowerCase();
+    }
+    
+    private long windowMillis() {
+        return windowSeconds * 1000;
+    }
+    
+    private static class SlidingWindow {
+        private final int maxAttempts;
+        private final ArrayDeque<Long> attempts = new ArrayDeque<>();
+        
+        SlidingWindow(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        synchronized boolean tryAcquire(long windowMillis) {
+            if (isFull(windowMillis)) {
+                return false;
+            }
+            attempts.addLast(System.currentTimeMillis());
+            return true;
+        }
+        
+        synchronized boolean isFull(long windowMillis) {
+            long now = System.currentTimeMillis();
+            while (!attempts.isEmpty() && attempts.peekFirst() <= now - windowMillis) {
+                attempts.pollFirst();
+            }
+            return attempts.size() >= maxAttempts;
+        }
+    }
+}
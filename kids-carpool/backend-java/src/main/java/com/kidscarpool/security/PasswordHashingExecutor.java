@@ -0,0 +1,82 @@
+package com.kidscarpool.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs BCrypt work on a small pool sized to the cores, so a login burst can't tie up
+// every Tomcat worker: the auth endpoints hand only the encode or match call to this pool and
+// complete asynchronously, keeping user lookups and saves off it. When the queue is full callers are rejected instead of waiting.
+@Component
+public class PasswordHashingExecutor {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer queueWaitTimer;
+    
+    private Timer hashTimer;
+    
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        queueWaitTimer = meterRegistry.timer("auth.hashing.queue.wait");
+        hashTimer = meterRegistry.timer("auth.hashing.duration");
+        meterRegistry.gauge("auth.hashing.queue.size", executor, e -> e.getQueue().size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Runs the work on the pool and returns at once, so the caller's request thread is free while
+     * the hash is computed. A full queue fails the future with ServiceOverloadedException.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return work.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ServiceOverloadedException("Authentication service is busy, please retry shortly"));
+        }
+    }
+}
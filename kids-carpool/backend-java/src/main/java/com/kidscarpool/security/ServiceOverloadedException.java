@@ -0,0 +1,9 @@
+package com.kidscarpool.security;
+
+// Thrown when a bounded work queue (password hashing, location ingestion) is full; mapped to 503
+public class ServiceOverloadedException extends RuntimeException {
+    
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
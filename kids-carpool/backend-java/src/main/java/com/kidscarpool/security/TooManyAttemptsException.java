@@ -0,0 +1,9 @@
+package com.kidscarpool.security;
+
+// Thrown when an account or client address exceeds its attempt budget; mapped to 429
+public class TooManyAttemptsException extends RuntimeException {
+    
+    public TooManyAttemptsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,70 @@
+package com.kidscarpool.security;
+
+import com.kidscarpool.model.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Authenticated user as carried in the JWT, so request handling never needs to look the user up
+@Getter
+public class UserPrincipal implements UserDetails {
+    
+    private final Long userId;
+    private final String email;
+    private final User.Role role;
+    private final String passwordHash;
+    
+    public UserPrincipal(Long userId, String email, User.Role role) {
+        this(userId, email, role, null);
+    }
+    
+    private UserPrincipal(Long userId, String email, User.Role role, String passwordHash) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.passwordHash = passwordHash;
+    }
+    
+    public static UserPrincipal fromUser(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getPasswordHash());
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
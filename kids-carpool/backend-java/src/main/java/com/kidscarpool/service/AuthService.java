@@ -7,20 +7,28 @@ import com.kidscarpool.dto.UserResponse;
 import com.kidscarpool.model.User;
 import com.kidscarpool.repository.UserRepository;
 import com.kidscarpool.security.JwtTokenProvider;
+import com.kidscarpool.security.LoginAttemptLimiter;
+import com.kidscarpool.security.PasswordHashingExecutor;
+import com.kidscarpool.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class AuthService {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserCache userCache;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
@@ -28,18 +36,41 @@ public class AuthService {
     private JwtTokenProvider tokenProvider;
     
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private LoginAttemptLimiter loginAttemptLimiter;
+    
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    
+    // Saves a registered user once its password is hashed, so the hashing pool only ever hashes
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
     
-    public UserResponse register(RegisterRequest request) {
+    // Unknown emails are checked against this, so they take as long to reject as a wrong password
+    private String unknownUserHash;
+    
+    @PostConstruct
+    public void init() {
+        unknownUserHash = passwordEncoder.encode("unknown-user");
+    }
+    
+    public CompletableFuture<UserResponse> register(RegisterRequest request, String clientIp) {
+        loginAttemptLimiter.checkClient(clientIp);
+        
         // Check if user already exists
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already registered");
         }
         
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword()))
+                .thenApplyAsync(passwordHash -> createUser(request, passwordHash), applicationTaskExecutor);
+    }
+    
+    private UserResponse createUser(RegisterRequest request, String passwordHash) {
         // Create new user
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHash);
         user.setFullName(request.getFull_name());
         user.setPhone(request.getPhone());
         user.setRole(User.Role.PARENT);
@@ -49,25 +80,34 @@ public class AuthService {
         user.setTotalRatings(0);
         
         User savedUser = userRepository.save(user);
+        userCache.put(savedUser);
         return UserResponse.fromUser(savedUser);
     }
     
-    public TokenResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
-                )
-        );
+    public CompletableFuture<TokenResponse> login(LoginRequest request, String clientIp) {
+        // Reject floods before DaoAuthenticationProvider spends a BCrypt round on them
+        loginAttemptLimiter.checkClient(clientIp);
+        loginAttemptLimiter.checkAccount(request.getUsername(), clientIp);
         
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = tokenProvider.generateToken(request.getUsername());
+        // The lookup stays on the request thread; only the BCrypt comparison goes to the pool
+        User user = userCache.findByEmail(request.getUsername()).orElse(null);
+        String passwordHash = user != null ? user.getPasswordHash() : unknownUserHash;
         
-        return new TokenResponse(token, "bearer");
+        return passwordHashingExecutor.submit(() -> passwordEncoder.matches(request.getPassword(), passwordHash))
+                .thenApply(matches -> {
+                    if (user == null || !matches) {
+                        loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    loginAttemptLimiter.recordSuccess(request.getUsername(), clientIp);
+                    
+                    String token = tokenProvider.generateToken(UserPrincipal.fromUser(user));
+                    return new TokenResponse(token, "bearer");
+                });
     }
     
     public UserResponse getCurrentUser(String email) {
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return UserResponse.fromUser(user);
     }
@@ -23,6 +23,9 @@ public class ChildService {
         child.setGrade(request.getGrade());
         child.setSchoolId(request.getSchool_id());
         child.setUserId(userId);
+        child.setHomeAddress(request.getHome_address());
+        child.setHomeLatitude(request.getHome_latitude());
+        child.setHomeLongitude(request.getHome_longitude());
         child.setEmergencyContactName(request.getEmergency_contact_name());
         child.setEmergencyContactPhone(request.getEmergency_contact_phone());
         child.setMedicalInfo(request.getMedical_info());
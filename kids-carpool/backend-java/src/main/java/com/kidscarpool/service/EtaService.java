@@ -0,0 +1,229 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.EtaResponse;
+import com.kidscarpool.dto.RouteStopResponse;
+import com.kidscarpool.dto.StopEtaResponse;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import com.kidscarpool.routing.RoutePlanner;
+import com.kidscarpool.tracking.EtaEstimator;
+import com.kidscarpool.tracking.LocationFix;
+import com.kidscarpool.tracking.LocationListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// Keeps a running ETA per active ride, advanced by every incoming fix. The planned stop order and
+// the set of users allowed to see it are loaded on a background thread after the ride's first fix
+// and again after the accepted set changes; a fix only swaps in a plan that is ready. Reading an
+// ETA touches neither the database nor the stored fixes.
+@Service
+public class EtaService implements LocationListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(EtaService.class);
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private SchoolRepository schoolRepository;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Value("${routing.average-speed-kmh:30}")
+    private double defaultSpeedKmh;
+    
+    @Value("${routing.stop-minutes:2}")
+    private double dwellMinutes;
+    
+    @Value("${eta.min-speed-kmh:10}")
+    private double minSpeedKmh;
+    
+    @Value("${eta.speed-time-constant-s:60}")
+    private double speedTimeConstantSeconds;
+    
+    @Value("${eta.stop-reached-m:75}")
+    private double reachedMeters;
+    
+    private final Map<Long, RideEta> rides = new ConcurrentHashMap<>();
+    
+    private ExecutorService planLoader;
+    
+    @PostConstruct
+    public void init() {
+        planLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eta-plan-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        planLoader.shutdownNow();
+    }
+    
+    // No estimate is published until the ride's first plan is in
+    @Override
+    public void onFixes(long rideId, List<LocationFix> fixes) {
+        RideEta eta = rides.computeIfAbsent(rideId, id -> new RideEta(
+                new EtaEstimator(defaultSpeedKmh, minSpeedKmh, speedTimeConstantSeconds, dwellMinutes, reachedMeters)));
+        if (eta.stale) {
+            requestPlan(rideId, eta);
+        }
+        Plan plan = eta.ready.getAndSet(null);
+        synchronized (eta) {
+            if (plan != null) {
+                eta.estimator.setPlan(plan.stops(), plan.destination());
+                eta.driverId = plan.driverId();
+                eta.viewers = plan.viewers();
+                eta.children = plan.children();
+            }
+            fixes.forEach(eta.estimator::update);
+            if (eta.driverId != null) {
+                eta.snapshot = eta.estimator.estimate();
+            }
+        }
+    }
+    
+    public EtaResponse getEta(Long rideId, Long userId) {
+        RideEta eta = rides.get(rideId);
+        EtaEstimator.Estimate estimate = eta == null ? null : eta.snapshot;
+        if (estimate == null) {
+            throw new RuntimeException("No live ETA for this ride yet");
+        }
+        if (!userId.equals(eta.driverId) && !eta.viewers.contains(userId)) {
+            throw new RuntimeException("Unauthorized access to ride ETA");
+        }
+        return toResponse(rideId, estimate, eta.children);
+    }
+    
+    // Accepted set changed: reload the stop order, keeping speed and reached stops
+    public void invalidate(Long rideId) {
+        RideEta eta = rides.get(rideId);
+        if (eta != null) {
+            eta.stale = true;
+            requestPlan(rideId, eta);
+        }
+    }
+    
+    // Called when a ride leaves ACTIVE
+    public void closeRide(Long rideId) {
+        rides.remove(rideId);
+    }
+    
+    // One load per ride at a time; a change that lands while it runs is picked up by another pass
+    private void requestPlan(long rideId, RideEta eta) {
+        if (!eta.loading.compareAndSet(false, true)) {
+            return;
+        }
+        planLoader.execute(() -> {
+            try {
+                while (eta.stale) {
+                    eta.stale = false;
+                    Plan plan = loadPlan(rideId);
+                    if (plan != null) {
+                        eta.ready.set(plan);
+                    }
+                }
+            } catch (RuntimeException e) {
+                eta.stale = true;
+                log.warn("Failed to load the ETA plan for ride {}", rideId, e);
+            } finally {
+                eta.loading.set(false);
+            }
+        });
+    }
+    
+    private Plan loadPlan(long rideId) {
+        Ride ride = rideRepository.findById(rideId).orElse(null);
+        if (ride == null) {
+            return null;
+        }
+        List<RideRequest> accepted = rideRequestRepository.findByRideIdAndStatus(rideId, RideRequest.RequestStatus.ACCEPTED);
+        School school = schoolRepository.findById(ride.getSchoolId()).orElse(null);
+        
+        List<EtaEstimator.Waypoint> stops = new ArrayList<>();
+        EtaEstimator.Waypoint destination = null;
+        if (school != null && GeoUtils.isValid(school.getLatitude(), school.getLongitude())) {
+            destination = new EtaEstimator.Waypoint(-school.getId(), school.getLatitude(), school.getLongitude());
+            for (RouteStopResponse stop : routePlanningService.planRoute(ride).getStops()) {
+                stops.add(new EtaEstimator.Waypoint(stop.getRide_request_id(), stop.getLatitude(), stop.getLongitude()));
+            }
+        } else {
+            log.debug("Ride {} has no routable school, estimating stops in request order", rideId);
+            for (RoutePlanner.Stop stop : routePlanningService.resolveStops(accepted, new ArrayList<>())) {
+                stops.add(new EtaEstimator.Waypoint(stop.id(), stop.lat(), stop.lon()));
+            }
+        }
+        
+        return new Plan(stops, destination, ride.getUserId(),
+                accepted.stream().map(RideRequest::getRequesterId).collect(Collectors.toUnmodifiableSet()),
+                accepted.stream().collect(Collectors.toUnmodifiableMap(RideRequest::getId, RideRequest::getChildId)));
+    }
+    
+    private static EtaResponse toResponse(Long rideId, EtaEstimator.Estimate estimate, Map<Long, Long> children) {
+        EtaResponse response = new EtaResponse();
+        response.setRide_id(rideId);
+        response.setLatitude(estimate.position().latitude());
+        response.setLongitude(estimate.position().longitude());
+        response.setRecorded_at(toDateTime(estimate.position().recordedAt()));
+        response.setSpeed_kmh(estimate.speedKmh() == null ? null : Math.round(estimate.speedKmh() * 10) / 10.0);
+        response.setArrived(estimate.arrived());
+        response.setSchool_eta(toDateTime(estimate.schoolEtaMillis()));
+        response.setStops(estimate.stops().stream()
+                .map(stop -> new StopEtaResponse(stop.id(), children.get(stop.id()), stop.reached(), toDateTime(stop.etaMillis())))
+                .collect(Collectors.toList()));
+        return response;
+    }
+    
+    private static LocalDateTime toDateTime(Long epochMillis) {
+        return epochMillis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private record Plan(List<EtaEstimator.Waypoint> stops, EtaEstimator.Waypoint destination, Long driverId,
+                        Set<Long> viewers, Map<Long, Long> children) {
+    }
+    
+    private static class RideEta {
+        final EtaEstimator estimator;
+        final AtomicBoolean loading = new AtomicBoolean();
+        final AtomicReference<Plan> ready = new AtomicReference<>();
+        volatile boolean stale = true;
+        volatile Long driverId;
+        volatile Set<Long> viewers = Set.of();
+        volatile Map<Long, Long> children = Map.of();
+        volatile EtaEstimator.Estimate snapshot;
+        
+        RideEta(EtaEstimator estimator) {
+            this.estimator = estimator;
+        }
+    }
+}
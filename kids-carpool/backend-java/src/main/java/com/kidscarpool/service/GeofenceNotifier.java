@@ -0,0 +1,114 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.tracking.GeofenceEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Turns geofence events into messages from the driver to the affected parents and, if enabled,
+// completes the ride when it reaches school. Runs on its own thread so database writes stay off
+// the location ingestion path.
+@Service
+public class GeofenceNotifier {
+    
+    private static final Logger log = LoggerFactory.getLogger(GeofenceNotifier.class);
+    
+    private static final int MAX_ATTEMPTS = 5;
+    
+    private static final long RETRY_DELAY_MS = 50;
+    
+    @Autowired
+    private MessageService messageService;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private RideService rideService;
+    
+    @Value("${geofence.auto-complete-ride:false}")
+    private boolean autoCompleteRide;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "geofence-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    @EventListener
+    public void onGeofence(GeofenceEvent event) {
+        executor.execute(() -> {
+            try {
+                handle(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to handle {} for ride {}", event.type(), event.rideId(), e);
+            }
+        });
+    }
+    
+    private void handle(GeofenceEvent event) {
+        if (event.type() == GeofenceEvent.Type.ARRIVING_AT_STOP) {
+            notify(event.driverId(), event.requesterId(), "Your ride is arriving at the pickup stop.");
+            return;
+        }
+        
+        List<RideRequest> accepted = rideRequestRepository.findByRideIdAndStatus(event.rideId(), RideRequest.RequestStatus.ACCEPTED);
+        accepted.stream()
+                .map(RideRequest::getRequesterId)
+                .distinct()
+                .forEach(parentId -> notify(event.driverId(), parentId, "Your ride has arrived at school."));
+        
+        if (autoCompleteRide) {
+            withRetry(() -> rideService.updateRideStatus(event.rideId(), "completed", event.driverId()));
+        }
+    }
+    
+    private void notify(Long driverId, Long parentId, String content) {
+        if (parentId.equals(driverId)) {
+            return;
+        }
+        withRetry(() -> messageService.deliver(driverId, parentId, content));
+    }
+    
+    // SQLite allows one writer at a time; off the request path it is fine to wait for the ingestion batch to commit
+    private void withRetry(Runnable write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.run();
+                return;
+            } catch (CannotAcquireLockException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.geo.GeoGridIndex;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import com.kidscarpool.routing.RoutePlanner;
+import com.kidscarpool.tracking.GeofenceEvent;
+import com.kidscarpool.tracking.LocationFix;
+import com.kidscarpool.tracking.LocationListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Checks every incoming fix against the geofences of active rides: one per school and one
+// approach circle per accepted pickup. A ride's fences are loaded on a background thread after its
+// first fix and again after its accepted set changes; that thread is the only one that changes the
+// index, so a reload can't interleave with another. Per fix the cost is a lookup in the few grid
+// cells around the car. Each fence fires once per ride as a GeofenceEvent; the school fence only
+// once every pickup has been approached and the car has been away from the school.
+@Service
+public class GeofenceService implements LocationListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(GeofenceService.class);
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private SchoolRepository schoolRepository;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${geofence.index.cell-degrees:0.005}")
+    private double cellDegrees;
+    
+    @Value("${geofence.school-radius-m:150}")
+    private double schoolRadiusMeters;
+    
+    @Value("${geofence.stop-radius-m:400}")
+    private double stopRadiusMeters;
+    
+    // School fences use the negated school id, stop fences the ride request id
+    private GeoGridIndex<Fence> fences;
+    
+    private final Map<Long, RideFences> rides = new ConcurrentHashMap<>();
+    
+    private final Map<Long, Set<Long>> triggered = new ConcurrentHashMap<>();
+    
+    // Rides whose car has reported a fix outside the school fence
+    private final Set<Long> leftSchool = ConcurrentHashMap.newKeySet();
+    
+    // Rides with a first load queued, so a burst of fixes queues it once
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+    
+    private ExecutorService loader;
+    
+    @PostConstruct
+    public void init() {
+        fences = new GeoGridIndex<>(cellDegrees);
+        loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "geofence-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+    
+    // Fixes that arrive before the ride's fences are loaded are not checked
+    @Override
+    public void onFixes(long rideId, List<LocationFix> fixes) {
+        RideFences ride = rides.get(rideId);
+        if (ride == null) {
+            if (loading.add(rideId)) {
+                loader.execute(() -> {
+                    loading.remove(rideId);
+                    if (!rides.containsKey(rideId)) {
+                        reload(rideId);
+                    }
+                });
+            }
+            return;
+        }
+        if (!ride.active()) {
+            return;
+        }
+        
+        double searchKm = Math.max(schoolRadiusMeters, stopRadiusMeters) / 1000;
+        Set<Long> fired = triggered.computeIfAbsent(rideId, id -> ConcurrentHashMap.newKeySet());
+        for (LocationFix fix : fixes) {
+            boolean atSchool = false;
+            for (GeoGridIndex.Match<Fence> match : fences.withinRadius(fix.latitude(), fix.longitude(), searchKm)) {
+                long fenceId = match.entry().id();
+                Fence fence = match.entry().value();
+                if (!ride.owns(fenceId) || match.distanceKm() * 1000 > fence.radiusMeters()) {
+                    continue;
+                }
+                if (fenceId < 0) {
+                    atSchool = true;
+                    // Starting next to the school, or skipping a pickup, is not an arrival
+                    if (!leftSchool.contains(rideId) || !fired.containsAll(ride.stopFenceIds())) {
+                        continue;
+                    }
+                }
+                if (fired.add(fenceId)) {
+                    eventPublisher.publishEvent(toEvent(fence, ride, fix));
+                }
+            }
+            if (!atSchool) {
+                leftSchool.add(rideId);
+            }
+        }
+    }
+    
+    // Accepted set changed: reload the ride's stop fences, keeping what already fired
+    public void invalidate(Long rideId) {
+        loader.execute(() -> {
+            if (rides.containsKey(rideId)) {
+                reload(rideId);
+            }
+        });
+    }
+    
+    // Called when a ride leaves ACTIVE
+    public void closeRide(Long rideId) {
+        loader.execute(() -> {
+            RideFences ride = rides.remove(rideId);
+            if (ride != null) {
+                ride.stopFenceIds().forEach(fences::remove);
+            }
+            triggered.remove(rideId);
+            leftSchool.remove(rideId);
+        });
+    }
+    
+    // Runs on the loader thread only: puts the new stop fences, drops the ones no longer accepted, then swaps the ride in
+    private void reload(long rideId) {
+        RideFences fresh;
+        try {
+            fresh = load(rideId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load geofences for ride {}", rideId, e);
+            return;
+        }
+        fresh.stopFences().forEach((id, stop) -> fences.put(id, stop.lat(), stop.lon(), stop.fence()));
+        RideFences previous = rides.put(rideId, fresh);
+        if (previous != null) {
+            previous.stopFenceIds().stream()
+                    .filter(id -> !fresh.owns(id))
+                    .forEach(fences::remove);
+        }
+    }
+    
+    private RideFences load(long rideId) {
+        Ride ride = rideRepository.findById(rideId).orElse(null);
+        if (ride == null || ride.getStatus() != Ride.RideStatus.ACTIVE) {
+            return RideFences.inactive();
+        }
+        
+        School school = schoolRepository.findById(ride.getSchoolId()).orElse(null);
+        if (school != null && GeoUtils.isValid(school.getLatitude(), school.getLongitude())) {
+            fences.put(-school.getId(), school.getLatitude(), school.getLongitude(),
+                    new Fence(GeofenceEvent.Type.ARRIVED_AT_SCHOOL, schoolRadiusMeters, null));
+        }
+        
+        List<RideRequest> accepted = rideRequestRepository.findByRideIdAndStatus(rideId, RideRequest.RequestStatus.ACCEPTED);
+        Map<Long, RideRequest> requests = accepted.stream()
+                .collect(Collectors.toMap(RideRequest::getId, Function.identity()));
+        Map<Long, StopFence> stopFences = new HashMap<>();
+        for (RoutePlanner.Stop stop : routePlanningService.resolveStops(accepted, new ArrayList<>())) {
+            stopFences.put(stop.id(), new StopFence(stop.lat(), stop.lon(),
+                    new Fence(GeofenceEvent.Type.ARRIVING_AT_STOP, stopRadiusMeters, requests.get(stop.id()))));
+        }
+        return new RideFences(true, ride.getUserId(), ride.getSchoolId(), Map.copyOf(stopFences));
+    }
+    
+    private GeofenceEvent toEvent(Fence fence, RideFences ride, LocationFix fix) {
+        RideRequest request = fence.request();
+        return new GeofenceEvent(fence.type(), fix.rideId(), ride.driverId(), ride.schoolId(),
+                request == null ? null : request.getId(),
+                request == null ? null : request.getChildId(),
+                request == null ? null : request.getRequesterId(),
+                fix.latitude(), fix.longitude(), fix.recordedAt());
+    }
+    
+    private record Fence(GeofenceEvent.Type type, double radiusMeters, RideRequest request) {
+    }
+    
+    private record StopFence(double lat, double lon, Fence fence) {
+    }
+    
+    private record RideFences(boolean active, Long driverId, Long schoolId, Map<Long, StopFence> stopFences) {
+        
+        static RideFences inactive() {
+            return new RideFences(false, null, null, Map.of());
+        }
+        
+        Set<Long> stopFenceIds() {
+            return stopFences.keySet();
+        }
+        
+        boolean owns(long fenceId) {
+            return fenceId < 0 ? schoolId != null && -fenceId == schoolId : stopFences.containsKey(fenceId);
+        }
+    }
+}
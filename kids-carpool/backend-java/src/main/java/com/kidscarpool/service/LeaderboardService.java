@@ -0,0 +1,220 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.TopDriverResponse;
+import com.kidscarpool.leaderboard.RatingAddedEvent;
+import com.kidscarpool.leaderboard.SchoolLeaderboards;
+import com.kidscarpool.model.RatingSummary;
+import com.kidscarpool.model.User;
+import com.kidscarpool.repository.RatingSummaryRepository;
+import com.kidscarpool.repository.RideRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-school top drivers, served from memory. Writers re-rank under the service lock and publish
+// an immutable top list per changed school, so reads never lock or touch the database. The whole
+// structure is rebuilt once at startup from the rides index and the rating summaries.
+@Service
+public class LeaderboardService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RatingSummaryRepository ratingSummaryRepository;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${leaderboard.max-size:50}")
+    private int maxSize;
+    
+    @Value("${leaderboard.default-size:10}")
+    private int defaultSize;
+    
+    @Value("${leaderboard.prior-ratings:5}")
+    private double priorRatings;
+    
+    @Value("${leaderboard.prior-mean:3.0}")
+    private double priorMean;
+    
+    @Value("${leaderboard.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+    
+    private TransactionTemplate readOnlyTemplate;
+    
+    // Guarded by this
+    private SchoolLeaderboards leaderboards;
+    
+    // Non-null while a rebuild is reading the tables; changes seen meanwhile are replayed on the new copy
+    private Set<Long> changedDuringRebuild;
+    
+    private List<long[]> joinsDuringRebuild;
+    
+    private final Map<Long, List<SchoolLeaderboards.Entry>> published = new ConcurrentHashMap<>();
+    
+    private volatile boolean ready;
+    
+    @PostConstruct
+    public void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        leaderboards = new SchoolLeaderboards(priorRatings, priorMean);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild();
+    }
+    
+    /** Reloads every school's ranking from the database. */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+            joinsDuringRebuild = new ArrayList<>();
+        }
+        
+        SchoolLeaderboards fresh = new SchoolLeaderboards(priorRatings, priorMean);
+        try {
+            readOnlyTemplate.executeWithoutResult(status -> {
+                Set<Long> drivers = new HashSet<>();
+                try (var pairs = rideRepository.streamDriverSchools()) {
+                    pairs.forEach(pair -> {
+                        fresh.addDriver(pair.getSchoolId(), pair.getDriverId());
+                        drivers.add(pair.getDriverId());
+                    });
+                }
+                List<Long> batch = new ArrayList<>(rebuildBatchSize);
+                for (Long driverId : drivers) {
+                    batch.add(driverId);
+                    if (batch.size() == rebuildBatchSize) {
+                        loadStandings(fresh, batch);
+                        batch.clear();
+                    }
+                }
+                loadStandings(fresh, batch);
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringRebuild = null;
+                joinsDuringRebuild = null;
+            }
+            throw e;
+        }
+        
+        Set<Long> changed;
+        synchronized (this) {
+            for (long[] join : joinsDuringRebuild) {
+                fresh.addDriver(join[0], join[1]);
+            }
+            leaderboards = fresh;
+            published.keySet().retainAll(fresh.schools());
+            for (Long schoolId : fresh.schools()) {
+                publish(schoolId);
+            }
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            joinsDuringRebuild = null;
+        }
+        changed.forEach(this::reloadDriver);
+        ready = true;
+        log.info("Rebuilt driver leaderboards for {} schools in {} ms",
+                fresh.schools().size(), System.currentTimeMillis() - started);
+    }
+    
+    private void loadStandings(SchoolLeaderboards target, Collection<Long> driverIds) {
+        Set<Long> missing = new HashSet<>(driverIds);
+        for (RatingSummary summary : ratingSummaryRepository.findAllById(driverIds)) {
+            target.setStanding(summary.getUserId(), summary.getRatingCount(), summary.getRatingSum());
+            missing.remove(summary.getUserId());
+        }
+        for (Long driverId : missing) {
+            target.setStanding(driverId, 0, 0);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRatingAdded(RatingAddedEvent event) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(event.ratedId());
+        }
+        leaderboards.addRating(event.ratedId(), event.stars()).forEach(this::publish);
+    }
+    
+    /** Called once a driver's ride at the school is saved. */
+    public void driverJoinedSchool(Long schoolId, Long driverId) {
+        boolean known;
+        synchronized (this) {
+            if (joinsDuringRebuild != null) {
+                joinsDuringRebuild.add(new long[]{schoolId, driverId});
+            }
+            if (leaderboards.addDriver(schoolId, driverId)) {
+                publish(schoolId);
+            }
+            known = leaderboards.hasStanding(driverId);
+        }
+        // First ride by this user since startup: their ratings so far come from the summary
+        if (!known) {
+            reloadDriver(driverId);
+        }
+    }
+    
+    /** Replaces the driver's standing with the stored summary, e.g. after it was repaired. */
+    public void reloadDriver(Long driverId) {
+        RatingSummary summary = ratingSummaryRepository.findById(driverId).orElse(null);
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(driverId);
+            }
+            leaderboards.setStanding(driverId,
+                    summary != null ? summary.getRatingCount() : 0,
+                    summary != null ? summary.getRatingSum() : 0).forEach(this::publish);
+        }
+    }
+    
+    public synchronized void removeSchool(Long schoolId) {
+        leaderboards.removeSchool(schoolId);
+        published.remove(schoolId);
+    }
+    
+    public List<TopDriverResponse> getTopDrivers(Long schoolId, Integer limit) {
+        if (!ready) {
+            throw new RuntimeException("Leaderboard is still loading");
+        }
+        int size = limit == null || limit <= 0 ? defaultSize : Math.min(limit, maxSize);
+        List<SchoolLeaderboards.Entry> top = published.getOrDefault(schoolId, List.of());
+        List<TopDriverResponse> response = new ArrayList<>(Math.min(size, top.size()));
+        for (SchoolLeaderboards.Entry entry : top.subList(0, Math.min(size, top.size()))) {
+            String name = userCache.findById(entry.driverId()).map(User::getFullName).orElse(null);
+            response.add(new TopDriverResponse(entry.driverId(), name, entry.average(), entry.ratingCount(), entry.score()));
+        }
+        return response;
+    }
+    
+    // Caller holds the lock
+    private void publish(Long schoolId) {
+        published.put(schoolId, List.copyOf(leaderboards.top(schoolId, maxSize)));
+    }
+}
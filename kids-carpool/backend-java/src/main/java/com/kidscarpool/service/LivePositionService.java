@@ -0,0 +1,299 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.GeofenceEventResponse;
+import com.kidscarpool.dto.LivePositionResponse;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.sse.SseSendPool;
+import com.kidscarpool.tracking.GeofenceEvent;
+import com.kidscarpool.tracking.LocationFix;
+import com.kidscarpool.tracking.LocationListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// Keeps the latest position of every ride in memory and streams it over SSE to the driver and
+// to parents with an accepted request. Ingestion only swaps a reference; a ticker hands due
+// subscribers to a small sender pool, so fast updates are coalesced to one event per interval
+// and a slow connection only ever has one send in flight. A send that blocks past the stall
+// timeout drops its stream without holding up the pool. Emitters are servlet-async, so open
+// streams don't hold a request thread.
+@Service
+public class LivePositionService implements LocationListener {
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${tracking.live.min-interval-ms:1000}")
+    private long minIntervalMs;
+    
+    @Value("${tracking.live.tick-ms:100}")
+    private long tickMs;
+    
+    @Value("${tracking.live.heartbeat-ms:15000}")
+    private long heartbeatMs;
+    
+    @Value("${tracking.live.stream-timeout-ms:3600000}")
+    private long streamTimeoutMs;
+    
+    @Value("${tracking.live.sender-threads:4}")
+    private int senderThreads;
+    
+    @Value("${tracking.live.stall-timeout-ms:5000}")
+    private long stallTimeoutMs;
+    
+    @Value("${tracking.live.max-stalled-sends:32}")
+    private int maxStalledSends;
+    
+    private final Map<Long, RideChannel> channels = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    private ScheduledExecutorService ticker;
+    
+    private SseSendPool senders;
+    
+    private Counter sentCounter;
+    
+    @PostConstruct
+    public void init() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "live-position-tick"));
+        senders = new SseSendPool("live-position", senderThreads, maxStalledSends, stallTimeoutMs);
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        
+        sentCounter = meterRegistry.counter("tracking.live.sent");
+        meterRegistry.gauge("tracking.live.subscribers", subscriberCount);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdown();
+        channels.keySet().forEach(this::closeRide);
+    }
+    
+    @Override
+    public void onFixes(long rideId, List<LocationFix> fixes) {
+        LocationFix newest = null;
+        for (LocationFix fix : fixes) {
+            if (newest == null || fix.recordedAt() > newest.recordedAt()) {
+                newest = fix;
+            }
+        }
+        if (newest != null) {
+            channels.computeIfAbsent(rideId, id -> new RideChannel()).update(newest);
+        }
+    }
+    
+    public LivePositionResponse getLatestPosition(Long rideId, Long userId) {
+        authorize(rideId, userId);
+        RideChannel channel = channels.get(rideId);
+        Position position = channel == null ? null : channel.latest.get();
+        if (position == null) {
+            throw new RuntimeException("No position reported for this ride yet");
+        }
+        return LivePositionResponse.fromFix(position.fix());
+    }
+    
+    public SseEmitter subscribe(Long rideId, Long userId) {
+        authorize(rideId, userId);
+        
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        RideChannel channel = channels.computeIfAbsent(rideId, id -> new RideChannel());
+        // Back-dated so the latest known position goes out on the next tick
+        Subscriber subscriber = new Subscriber(emitter, userId, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(minIntervalMs));
+        channel.subscribers.add(subscriber);
+        subscriberCount.incrementAndGet();
+        
+        Runnable remove = () -> evict(channel, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+    
+    // Called when a ride leaves ACTIVE: ends its streams and forgets its position
+    public void closeRide(Long rideId) {
+        RideChannel channel = channels.remove(rideId);
+        if (channel != null) {
+            channel.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+    
+    // Called when a ride's accepted requests change: parents no longer riding along lose their streams
+    public void revokeAccess(Long rideId) {
+        RideChannel channel = channels.get(rideId);
+        if (channel == null || channel.subscribers.isEmpty()) {
+            return;
+        }
+        Long driverId = rideRepository.findById(rideId).map(Ride::getUserId).orElse(null);
+        Set<Long> riding = rideRequestRepository.findByRideIdAndStatus(rideId, RideRequest.RequestStatus.ACCEPTED).stream()
+                .map(RideRequest::getRequesterId)
+                .collect(Collectors.toSet());
+        for (Subscriber subscriber : channel.subscribers) {
+            if (!subscriber.userId.equals(driverId) && !riding.contains(subscriber.userId)) {
+                evict(channel, subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    // Geofence events are rare and never coalesced; a stop event only goes to the driver and that stop's parent.
+    // They are queued on the subscriber and sent by the next tick, so they share its one send in flight
+    @EventListener
+    public void onGeofence(GeofenceEvent event) {
+        RideChannel channel = channels.get(event.rideId());
+        if (channel == null) {
+            return;
+        }
+        GeofenceEventResponse body = GeofenceEventResponse.fromEvent(event);
+        for (Subscriber subscriber : channel.subscribers) {
+            if (event.requesterId() != null && !subscriber.userId.equals(event.requesterId())
+                    && !subscriber.userId.equals(event.driverId())) {
+                continue;
+            }
+            subscriber.geofences.add(body);
+        }
+    }
+    
+    private void authorize(Long rideId, Long userId) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)
+                && !rideRequestRepository.existsByRideIdAndRequesterIdAndStatus(rideId, userId, RideRequest.RequestStatus.ACCEPTED)) {
+            throw new RuntimeException("Unauthorized access to ride position");
+        }
+    }
+    
+    private void tick() {
+        long now = System.nanoTime();
+        long minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+        long heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        
+        for (RideChannel channel : channels.values()) {
+            Position position = channel.latest.get();
+            for (Subscriber subscriber : channel.subscribers) {
+                boolean fresh = position != null && position.version() != subscriber.sentVersion
+                        && now - subscriber.lastSentAt >= minIntervalNanos;
+                boolean heartbeat = now - subscriber.lastSentAt >= heartbeatNanos;
+                boolean geofence = !subscriber.geofences.isEmpty();
+                if ((fresh || heartbeat || geofence) && subscriber.sending.compareAndSet(false, true)) {
+                    if (fresh || heartbeat) {
+                        subscriber.lastSentAt = now;
+                    }
+                    if (fresh) {
+                        subscriber.sentVersion = position.version();
+                    }
+                    boolean keepalive = heartbeat && !fresh && !geofence;
+                    senders.execute(() -> send(channel, subscriber, fresh ? position : null, keepalive),
+                            () -> {
+                                subscriber.stalled = true;
+                                evict(channel, subscriber);
+                            });
+                }
+            }
+        }
+    }
+    
+    private void send(RideChannel channel, Subscriber subscriber, Position position, boolean keepalive) {
+        try {
+            GeofenceEventResponse geofence;
+            while ((geofence = subscriber.geofences.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("geofence")
+                        .data(geofence, MediaType.APPLICATION_JSON));
+            }
+            if (position != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("position")
+                        .data(LivePositionResponse.fromFix(position.fix()), MediaType.APPLICATION_JSON));
+                sentCounter.increment();
+            } else if (keepalive) {
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a broken pipe
+            evict(channel, subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // The watchdog can't complete an emitter mid-write, so a stream dropped for stalling is ended here
+        if (subscriber.stalled) {
+            subscriber.emitter.complete();
+        }
+    }
+    
+    private void evict(RideChannel channel, Subscriber subscriber) {
+        if (channel.subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static class RideChannel {
+        final AtomicReference<Position> latest = new AtomicReference<>();
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        
+        // Out-of-order fixes never move the car backwards
+        void update(LocationFix fix) {
+            latest.updateAndGet(current -> current == null ? new Position(fix, 1)
+                    : fix.recordedAt() < current.fix().recordedAt() ? current
+                    : new Position(fix, current.version() + 1));
+        }
+    }
+    
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final Long userId;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final Queue<GeofenceEventResponse> geofences = new ConcurrentLinkedQueue<>();
+        volatile boolean stalled;
+        volatile long sentVersion;
+        volatile long lastSentAt;
+        
+        Subscriber(SseEmitter emitter, Long userId, long lastSentAt) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.lastSentAt = lastSentAt;
+        }
+    }
+    
+    private record Position(LocationFix fix, long version) {
+    }
+}
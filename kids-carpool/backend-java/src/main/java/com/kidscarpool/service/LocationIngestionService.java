@@ -0,0 +1,200 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.LocationFixRequest;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.security.ServiceOverloadedException;
+import com.kidscarpool.tracking.LocationFix;
+import com.kidscarpool.tracking.LocationListener;
+import com.kidscarpool.tracking.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Accepts GPS fixes from drivers and writes them to ride_locations off the request path.
+// Fixes are staged in a lock-free ring buffer and a single writer thread flushes them in
+// multi-row inserts, one transaction per flush, so SQLite sees one commit per batch
+// instead of one per fix. Listeners see each fix immediately, without waiting for the flush.
+@Service
+public class LocationIngestionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LocationIngestionService.class);
+    
+    // 4 bound parameters per row, well under SQLite's per-statement limit
+    private static final int ROWS_PER_STATEMENT = 200;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private List<LocationListener> listeners;
+    
+    @Value("${tracking.buffer-capacity:65536}")
+    private int bufferCapacity;
+    
+    @Value("${tracking.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${tracking.flush-interval-ms:250}")
+    private long flushIntervalMs;
+    
+    private MpscRingBuffer<LocationFix> buffer;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private Thread writer;
+    
+    private volatile boolean running;
+    
+    private Counter acceptedCounter;
+    
+    private Counter rejectedCounter;
+    
+    private Counter failedCounter;
+    
+    private Timer flushTimer;
+    
+    private DistributionSummary flushRows;
+    
+    @PostConstruct
+    public void init() {
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        acceptedCounter = meterRegistry.counter("tracking.fixes.accepted");
+        rejectedCounter = meterRegistry.counter("tracking.fixes.rejected");
+        failedCounter = meterRegistry.counter("tracking.fixes.failed");
+        flushTimer = meterRegistry.timer("tracking.flush.duration");
+        flushRows = meterRegistry.summary("tracking.flush.rows");
+        meterRegistry.gauge("tracking.buffer.size", buffer, MpscRingBuffer::size);
+        
+        running = true;
+        writer = new Thread(this::runWriter, "location-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    // Stops taking new work and lets the writer drain whatever is still buffered
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    
+    public int ingest(Long rideId, Long userId, List<LocationFixRequest> fixes) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to ride locations");
+        }
+        if (ride.getStatus() != Ride.RideStatus.ACTIVE) {
+            throw new RuntimeException("Ride is not active");
+        }
+        
+        long now = System.currentTimeMillis();
+        List<LocationFix> accepted = new ArrayList<>(fixes.size());
+        for (LocationFixRequest fix : fixes) {
+            if (!GeoUtils.isValid(fix.getLatitude(), fix.getLongitude())) {
+                throw new RuntimeException("Invalid coordinates: " + fix.getLatitude() + "," + fix.getLongitude());
+            }
+            long recordedAt = fix.getRecorded_at() != null ? fix.getRecorded_at() : now;
+            accepted.add(new LocationFix(rideId, fix.getLatitude(), fix.getLongitude(), recordedAt));
+        }
+        
+        // All or nothing, so a refused device can resend the batch as-is
+        if (!running || !buffer.offerAll(accepted)) {
+            rejectedCounter.increment(accepted.size());
+            throw new ServiceOverloadedException("Location ingestion is busy, please retry shortly");
+        }
+        acceptedCounter.increment(accepted.size());
+        
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        
+        for (LocationListener listener : listeners) {
+            listener.onFixes(rideId, accepted);
+        }
+        return accepted.size();
+    }
+    
+    private void runWriter() {
+        List<LocationFix> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        
+        while (running || buffer.size() > 0) {
+            // Producers unpark us early once a full batch is waiting
+            if (running && buffer.size() < batchSize) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+            
+            int drained;
+            do {
+                drained = buffer.drainTo(batch, batchSize);
+                if (drained > 0) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } while (drained == batchSize);
+        }
+    }
+    
+    private void flush(List<LocationFix> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < batch.size(); from += ROWS_PER_STATEMENT) {
+                    insertRows(batch.subList(from, Math.min(batch.size(), from + ROWS_PER_STATEMENT)));
+                }
+            });
+            flushRows.record(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Dropped {} location fixes after a failed flush", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void insertRows(List<LocationFix> rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ride_locations (ride_id, latitude, longitude, created_at) VALUES ");
+        Object[] args = new Object[rows.size() * 4];
+        for (int i = 0; i < rows.size(); i++) {
+            LocationFix fix = rows.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args[i * 4] = fix.rideId();
+            args[i * 4 + 1] = fix.latitude();
+            args[i * 4 + 2] = fix.longitude();
+            args[i * 4 + 3] = fix.recordedAt();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
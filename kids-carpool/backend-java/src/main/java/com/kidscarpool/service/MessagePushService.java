@@ -0,0 +1,221 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.MessageResponse;
+import com.kidscarpool.messaging.MessageSentEvent;
+import com.kidscarpool.sse.SseSendPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes new messages to the receiver's open SSE streams once the sending transaction commits.
+// Each stream has a bounded queue drained by a small sender pool, one send in flight per stream,
+// so senders never wait on a slow client. A full queue drops the frame and the client is told
+// to resync from the conversation endpoints instead of silently missing messages. A send that
+// blocks past the stall timeout closes its stream without holding up the pool.
+@Service
+public class MessagePushService {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${messaging.push.queue-capacity:256}")
+    private int queueCapacity;
+    
+    @Value("${messaging.push.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+    
+    @Value("${messaging.push.heartbeat-ms:15000}")
+    private long heartbeatMs;
+    
+    @Value("${messaging.push.stream-timeout-ms:3600000}")
+    private long streamTimeoutMs;
+    
+    @Value("${messaging.push.sender-threads:2}")
+    private int senderThreads;
+    
+    @Value("${messaging.push.stall-timeout-ms:5000}")
+    private long stallTimeoutMs;
+    
+    @Value("${messaging.push.max-stalled-sends:16}")
+    private int maxStalledSends;
+    
+    private final Map<Long, Set<Session>> sessions = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    
+    private ScheduledExecutorService ticker;
+    
+    private SseSendPool senders;
+    
+    private Counter sentCounter;
+    
+    private Counter droppedCounter;
+    
+    @PostConstruct
+    public void init() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "message-push-heartbeat"));
+        senders = new SseSendPool("message-push", senderThreads, maxStalledSends, stallTimeoutMs);
+        ticker.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        
+        sentCounter = meterRegistry.counter("messaging.push.sent");
+        droppedCounter = meterRegistry.counter("messaging.push.dropped");
+        meterRegistry.gauge("messaging.push.sessions", sessionCount);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdown();
+        sessions.values().forEach(userSessions -> userSessions.forEach(session -> session.emitter.complete()));
+    }
+    
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Session session = new Session(userId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        
+        sessions.compute(userId, (id, userSessions) -> {
+            Set<Session> updated = userSessions != null ? userSessions : ConcurrentHashMap.newKeySet();
+            if (updated.size() >= maxSessionsPerUser) {
+                throw new RuntimeException("Too many open message streams");
+            }
+            updated.add(session);
+            return updated;
+        });
+        sessionCount.incrementAndGet();
+        
+        Runnable remove = () -> remove(session);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Set<Session> receiverSessions = sessions.get(event.message().getReceiver_id());
+        if (receiverSessions == null) {
+            return;
+        }
+        for (Session session : receiverSessions) {
+            if (!session.queue.offer(event.message())) {
+                session.overflowed = true;
+                droppedCounter.increment();
+            }
+            schedule(session);
+        }
+    }
+    
+    private void schedule(Session session) {
+        if (!session.closed.get() && session.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(session), () -> {
+                session.stalled = true;
+                remove(session);
+            });
+        }
+    }
+    
+    private void drain(Session session) {
+        try {
+            if (session.keepaliveDue) {
+                session.keepaliveDue = false;
+                // Any frame keeps the connection alive; the comment is only needed on an idle stream
+                if (session.queue.isEmpty() && !session.overflowed) {
+                    session.emitter.send(SseEmitter.event().comment("keepalive"));
+                }
+            }
+            while (!session.stalled) {
+                if (session.overflowed) {
+                    session.overflowed = false;
+                    session.emitter.send(SseEmitter.event().name("resync").data(""));
+                }
+                MessageResponse message = session.queue.poll();
+                if (message == null) {
+                    break;
+                }
+                session.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(message.getId()))
+                        .name("message")
+                        .data(message, MediaType.APPLICATION_JSON));
+                sentCounter.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a broken pipe
+            remove(session);
+            return;
+        } finally {
+            session.sending.set(false);
+        }
+        // The watchdog can't complete an emitter mid-write, so a stream dropped for stalling is ended here
+        if (session.stalled) {
+            session.emitter.complete();
+            return;
+        }
+        // A frame offered after the last poll but before the flag cleared would otherwise wait for the next one
+        if (!session.queue.isEmpty() || session.overflowed || session.keepaliveDue) {
+            schedule(session);
+        }
+    }
+    
+    // Keepalives go through drain like any frame, so they never hold the send flag on their own
+    private void heartbeat() {
+        for (Set<Session> userSessions : sessions.values()) {
+            for (Session session : userSessions) {
+                session.keepaliveDue = true;
+                schedule(session);
+            }
+        }
+    }
+    
+    private void remove(Session session) {
+        if (!session.closed.compareAndSet(false, true)) {
+            return;
+        }
+        sessions.computeIfPresent(session.userId, (id, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        sessionCount.decrementAndGet();
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static class Session {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<MessageResponse> queue;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile boolean stalled;
+        volatile boolean keepaliveDue;
+        
+        Session(Long userId, SseEmitter emitter, BlockingQueue<MessageResponse> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -1,38 +1,93 @@
 package com.kidscarpool.service;
 
+import com.kidscarpool.dto.ConversationResponse;
+import com.kidscarpool.dto.MarkReadResponse;
 import com.kidscarpool.dto.MessageRequest;
 import com.kidscarpool.dto.MessageResponse;
+import com.kidscarpool.dto.PageResponse;
+import com.kidscarpool.dto.UnreadCountResponse;
+import com.kidscarpool.messaging.MessageSentEvent;
+import com.kidscarpool.model.Conversation;
 import com.kidscarpool.model.Message;
+import com.kidscarpool.model.User;
+import com.kidscarpool.repository.ConversationRepository;
 import com.kidscarpool.repository.MessageRepository;
-import com.kidscarpool.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class MessageService {
     
+    private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+    
+    private static final int MAX_SEARCH_TERMS = 10;
+    
     @Autowired
     private MessageRepository messageRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private ConversationRepository conversationRepository;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private Pagination pagination;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${messaging.search.max-results:500}")
+    private int searchMaxResults;
+    
+    @Transactional
     public MessageResponse sendMessage(MessageRequest request, Long senderId) {
         // Verify receiver exists
-        userRepository.findById(request.getReceiver_id())
+        userCache.findById(request.getReceiver_id())
                 .orElseThrow(() -> new RuntimeException("Receiver not found"));
         
+        Message savedMessage = deliver(senderId, request.getReceiver_id(), request.getContent());
+        return MessageResponse.fromMessage(savedMessage);
+    }
+    
+    /**
+     * Stores a message in the pair's conversation, creating the conversation on first contact,
+     * and moves the conversation's last-message pointer forward.
+     */
+    @Transactional
+    public Message deliver(Long senderId, Long receiverId, String content) {
+        Long userLowId = Math.min(senderId, receiverId);
+        Long userHighId = Math.max(senderId, receiverId);
+        Conversation conversation = conversationRepository.findByUserLowIdAndUserHighId(userLowId, userHighId)
+                .orElseGet(() -> {
+                    conversationRepository.insertIfAbsent(userLowId, userHighId, LocalDateTime.now());
+                    return conversationRepository.findByUserLowIdAndUserHighId(userLowId, userHighId)
+                            .orElseThrow(() -> new RuntimeException("Conversation not found"));
+                });
+        
         Message message = new Message();
         message.setSenderId(senderId);
-        message.setReceiverId(request.getReceiver_id());
-        message.setContent(request.getContent());
+        message.setReceiverId(receiverId);
+        message.setConversationId(conversation.getId());
+        message.setContent(content);
         message.setIsRead(false);
         
         Message savedMessage = messageRepository.save(message);
-        return MessageResponse.fromMessage(savedMessage);
+        conversationRepository.advanceLastMessage(conversation.getId(), savedMessage.getId(), savedMessage.getCreatedAt());
+        conversationRepository.addUnread(conversation.getId(), receiverId, 1);
+        eventPublisher.publishEvent(new MessageSentEvent(MessageResponse.fromMessage(savedMessage)));
+        return savedMessage;
     }
     
     public List<MessageResponse> getUserMessages(Long userId) {
@@ -41,6 +96,93 @@ public class MessageService {
                 .collect(Collectors.toList());
     }
     
+    public PageResponse<MessageResponse> getUserMessagesPage(Long userId, Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<Message> messages = messageRepository.findUserMessagesBefore(
+                userId, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(messages, pageSize, MessageResponse::fromMessage, Message::getId);
+    }
+    
+    /**
+     * Searches the text of the user's own messages, best match first. The cursor is an offset into
+     * the ranking, capped at {@code messaging.search.max-results}.
+     */
+    public PageResponse<MessageResponse> searchMessages(Long userId, String query, Long cursor, Integer limit) {
+        List<String> terms = SEARCH_TERM.matcher(query == null ? "" : query).results()
+                .map(MatchResult::group)
+                .limit(MAX_SEARCH_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            throw new RuntimeException("Search query is empty");
+        }
+        
+        int offset = cursor == null ? 0 : (int) Math.max(0, Math.min(cursor, searchMaxResults));
+        int pageSize = Math.min(pagination.pageSize(limit), searchMaxResults - offset);
+        if (pageSize <= 0) {
+            return new PageResponse<>(List.of(), null);
+        }
+        
+        // Terms are quoted so user input can never be read as FTS5 query syntax
+        String match = "owners : \"u" + userId + "\" AND content : ("
+                + terms.stream().map(term -> "\"" + term + "\"").collect(Collectors.joining(" AND ")) + ")";
+        List<Message> messages = messageRepository.search(match, pageSize + 1, offset);
+        
+        boolean hasMore = messages.size() > pageSize && offset + pageSize < searchMaxResults;
+        List<MessageResponse> items = messages.stream()
+                .limit(pageSize)
+                .map(MessageResponse::fromMessage)
+                .toList();
+        return new PageResponse<>(items, hasMore ? (long) offset + pageSize : null);
+    }
+    
+    public PageResponse<ConversationResponse> getConversationsPage(Long userId, Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<Conversation> conversations = conversationRepository.findUserConversationsBefore(
+                userId, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        if (conversations.isEmpty()) {
+            return new PageResponse<>(List.of(), null);
+        }
+        
+        // Unread counts live on the conversation rows; the last messages are one more query for the page
+        Map<Long, Message> lastMessages = messageRepository.findAllById(
+                        conversations.stream().map(Conversation::getLastMessageId).toList()).stream()
+                .collect(Collectors.toMap(Message::getId, Function.identity()));
+        
+        return PageResponse.of(conversations, pageSize, conversation -> {
+            Long otherUserId = conversation.otherParticipant(userId);
+            Message lastMessage = lastMessages.get(conversation.getLastMessageId());
+            return ConversationResponse.fromConversation(conversation, userId,
+                    userCache.findById(otherUserId).map(User::getFullName).orElse(null),
+                    lastMessage == null ? null : MessageResponse.fromMessage(lastMessage),
+                    conversation.unreadFor(userId));
+        }, Conversation::getLastMessageId);
+    }
+    
+    // The cursor is the id of the last message seen; paging itself runs on (created_at, id)
+    public PageResponse<MessageResponse> getConversationMessagesPage(Long conversationId, Long userId, Long cursor, Integer limit) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        
+        if (!conversation.hasParticipant(userId)) {
+            throw new RuntimeException("Unauthorized access to conversation");
+        }
+        
+        int pageSize = pagination.pageSize(limit);
+        List<Message> messages;
+        if (cursor == null) {
+            messages = messageRepository.findByConversationIdOrderByCreatedAtDescIdDesc(
+                    conversationId, pagination.fetchLimit(pageSize));
+        } else {
+            Message anchor = messageRepository.findById(cursor)
+                    .filter(message -> message.getConversationId().equals(conversationId))
+                    .orElseThrow(() -> new RuntimeException("Invalid cursor"));
+            messages = messageRepository.findConversationMessagesBefore(
+                    conversationId, anchor.getCreatedAt(), anchor.getId(), pagination.fetchLimit(pageSize));
+        }
+        return PageResponse.of(messages, pageSize, MessageResponse::fromMessage, Message::getId);
+    }
+    
+    @Transactional
     public MessageResponse markMessageRead(Long messageId, Long userId) {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
@@ -49,8 +191,35 @@ public class MessageService {
             throw new RuntimeException("Unauthorized access to message");
         }
         
-        message.setIsRead(true);
-        Message updatedMessage = messageRepository.save(message);
-        return MessageResponse.fromMessage(updatedMessage);
+        if (messageRepository.markRead(messageId) == 1) {
+            conversationRepository.addUnread(message.getConversationId(), userId, -1);
+        }
+        MessageResponse response = MessageResponse.fromMessage(message);
+        response.setIs_read(true);
+        return response;
+    }
+    
+    /**
+     * Marks every message the user received in the conversation as read, up to and including
+     * {@code upTo} (or all of them), in one statement, and takes them off the unread counter.
+     */
+    @Transactional
+    public MarkReadResponse markConversationRead(Long conversationId, Long userId, Long upTo) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        
+        if (!conversation.hasParticipant(userId)) {
+            throw new RuntimeException("Unauthorized access to conversation");
+        }
+        
+        int marked = messageRepository.markConversationRead(conversationId, userId, upTo != null ? upTo : Long.MAX_VALUE);
+        if (marked > 0) {
+            conversationRepository.addUnread(conversationId, userId, -marked);
+        }
+        return new MarkReadResponse(conversationId, marked);
+    }
+    
+    public UnreadCountResponse getUnreadCount(Long userId) {
+        return new UnreadCountResponse(conversationRepository.countUnread(userId));
     }
 }
@@ -0,0 +1,126 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.NearbyResponse;
+import com.kidscarpool.dto.RideResponse;
+import com.kidscarpool.dto.SchoolResponse;
+import com.kidscarpool.geo.GeoGridIndex;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Spatial indexes over school locations and active ride origins. Loaded once at startup and
+// kept current by SchoolService and RideService, so distance queries never scan the tables.
+@Service
+public class NearbySearchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(NearbySearchService.class);
+    
+    @Autowired
+    private SchoolRepository schoolRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Value("${geo.nearby.max-results:50}")
+    private int maxResults;
+    
+    @Value("${geo.nearby.max-radius-km:50}")
+    private double maxRadiusKm;
+    
+    @Value("${geo.index.cell-degrees:0.05}")
+    private double cellDegrees;
+    
+    private GeoGridIndex<SchoolResponse> schools;
+    
+    // Ride origins carry the school id so school filters don't need a lookup
+    private GeoGridIndex<Long> rideOrigins;
+    
+    @PostConstruct
+    public void init() {
+        schools = new GeoGridIndex<>(cellDegrees);
+        rideOrigins = new GeoGridIndex<>(cellDegrees);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        schools.clear();
+        rideOrigins.clear();
+        schoolRepository.findAll().forEach(this::indexSchool);
+        rideRepository.findByStatus(Ride.RideStatus.ACTIVE).forEach(this::indexRide);
+        log.info("Spatial index loaded: {} schools, {} ride origins", schools.size(), rideOrigins.size());
+    }
+    
+    public void indexSchool(School school) {
+        if (GeoUtils.isValid(school.getLatitude(), school.getLongitude())) {
+            schools.put(school.getId(), school.getLatitude(), school.getLongitude(), SchoolResponse.fromSchool(school));
+        } else {
+            schools.remove(school.getId());
+        }
+    }
+    
+    public void removeSchool(Long schoolId) {
+        schools.remove(schoolId);
+    }
+    
+    // Only active rides with known origin coordinates are searchable
+    public void indexRide(Ride ride) {
+        if (ride.getStatus() == Ride.RideStatus.ACTIVE && GeoUtils.isValid(ride.getPickupLatitude(), ride.getPickupLongitude())) {
+            rideOrigins.put(ride.getId(), ride.getPickupLatitude(), ride.getPickupLongitude(), ride.getSchoolId());
+        } else {
+            rideOrigins.remove(ride.getId());
+        }
+    }
+    
+    public void removeRide(Long rideId) {
+        rideOrigins.remove(rideId);
+    }
+    
+    public List<NearbyResponse<SchoolResponse>> nearestSchools(double lat, double lon, Integer k) {
+        validate(lat, lon);
+        int count = k == null || k <= 0 ? 10 : Math.min(k, maxResults);
+        return schools.nearest(lat, lon, count, maxRadiusKm).stream()
+                .map(match -> new NearbyResponse<>(match.entry().value(), match.distanceKm()))
+                .collect(Collectors.toList());
+    }
+    
+    public List<NearbyResponse<RideResponse>> ridesNear(double lat, double lon, Double radiusKm, Long schoolId) {
+        validate(lat, lon);
+        double radius = radiusKm == null || radiusKm <= 0 ? 5.0 : Math.min(radiusKm, maxRadiusKm);
+        List<GeoGridIndex.Match<Long>> matches = rideOrigins.withinRadius(lat, lon, radius).stream()
+                .filter(match -> schoolId == null || schoolId.equals(match.entry().value()))
+                .limit(maxResults)
+                .toList();
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        
+        // Seat counts change, so the rides themselves are read by primary key
+        Map<Long, Ride> rides = rideRepository.findAllById(matches.stream().map(m -> m.entry().id()).toList()).stream()
+                .collect(Collectors.toMap(Ride::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> rides.containsKey(match.entry().id()))
+                .map(match -> new NearbyResponse<>(RideResponse.fromRide(rides.get(match.entry().id())), match.distanceKm()))
+                .collect(Collectors.toList());
+    }
+    
+    private void validate(double lat, double lon) {
+        if (!GeoUtils.isValid(lat, lon)) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.kidscarpool.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+@Component
+public class Pagination {
+    
+    @Value("${pagination.default-page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+    
+    public int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+    
+    // One row past the page so PageResponse can tell whether there is a next cursor
+    public Limit fetchLimit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+    
+    // Cursors walk ids newest-first; no cursor means start from the top
+    public long before(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+}
@@ -0,0 +1,187 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.model.RatingSummary;
+import com.kidscarpool.model.User;
+import com.kidscarpool.repository.RatingRepository;
+import com.kidscarpool.repository.RatingSummaryRepository;
+import com.kidscarpool.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Periodically checks the incremental rating aggregates against the ratings table. Users are
+// walked in id batches, checked in parallel with one grouped query per batch, and any user whose
+// summary or public average disagrees is rebuilt from the source rows in a single transaction.
+@Service
+public class RatingReconciler {
+    
+    private static final Logger log = LoggerFactory.getLogger(RatingReconciler.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private RatingRepository ratingRepository;
+    
+    @Autowired
+    private RatingSummaryRepository ratingSummaryRepository;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${ratings.reconcile.interval-minutes:60}")
+    private long intervalMinutes;
+    
+    @Value("${ratings.reconcile.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${ratings.reconcile.threads:2}")
+    private int threads;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private ScheduledExecutorService scheduler;
+    
+    private ExecutorService workers;
+    
+    private Counter checkedCounter;
+    
+    private Counter repairedCounter;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "rating-reconciler"));
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads,
+                runnable -> daemon(runnable, "rating-reconciler-" + threadCount.incrementAndGet()));
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.error("Rating reconciliation failed", e);
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        
+        checkedCounter = meterRegistry.counter("ratings.reconcile.checked");
+        repairedCounter = meterRegistry.counter("ratings.reconcile.repaired");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    /** Checks every user's aggregates and returns how many had to be repaired. */
+    public int reconcile() {
+        List<CompletableFuture<Integer>> batches = new ArrayList<>();
+        long after = 0;
+        List<Long> ids;
+        do {
+            ids = userRepository.findIdsAfter(after, Limit.of(batchSize));
+            if (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                batches.add(CompletableFuture.supplyAsync(() -> reconcileBatch(batch), workers));
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        
+        int repaired = batches.stream().mapToInt(CompletableFuture::join).sum();
+        if (repaired > 0) {
+            log.warn("Repaired rating aggregates of {} users", repaired);
+        }
+        return repaired;
+    }
+    
+    private int reconcileBatch(List<Long> userIds) {
+        Map<Long, int[]> expected = new HashMap<>();
+        for (RatingRepository.StarCount count : ratingRepository.countStarsByRatedIds(userIds)) {
+            if (count.getStars() >= 1 && count.getStars() <= 5) {
+                expected.computeIfAbsent(count.getRatedId(), id -> new int[5])[count.getStars() - 1] += count.getRatings();
+            }
+        }
+        Map<Long, RatingSummary> summaries = ratingSummaryRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(RatingSummary::getUserId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        int repaired = 0;
+        for (Long userId : userIds) {
+            User user = users.get(userId);
+            if (user == null) {
+                continue;
+            }
+            int[] stars = expected.getOrDefault(userId, new int[5]);
+            RatingSummary summary = summaries.get(userId);
+            int[] actual = summary != null ? summary.histogram() : new int[5];
+            if (!Arrays.equals(stars, actual) || !matchesUser(user, stars)) {
+                repair(userId);
+                repaired++;
+            }
+        }
+        checkedCounter.increment(userIds.size());
+        repairedCounter.increment(repaired);
+        return repaired;
+    }
+    
+    private static boolean matchesUser(User user, int[] stars) {
+        int count = 0;
+        long sum = 0;
+        for (int i = 0; i < stars.length; i++) {
+            count += stars[i];
+            sum += (long) (i + 1) * stars[i];
+        }
+        double average = count == 0 ? 0.0 : (double) sum / count;
+        return user.getTotalRatings() != null && user.getTotalRatings() == count
+                && user.getAverageRating() != null && Math.abs(user.getAverageRating() - average) < 1e-9;
+    }
+    
+    // Rebuilt from the ratings in SQL, so a rating committed meanwhile is counted, not overwritten
+    private void repair(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ratingSummaryRepository.recompute(userId);
+            ratingSummaryRepository.syncUser(userId);
+            userCache.evictAfterCommit(userId);
+        });
+        leaderboardService.reloadDriver(userId);
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -1,16 +1,24 @@
 package com.kidscarpool.service;
 
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.RatingRequest;
 import com.kidscarpool.dto.RatingResponse;
+import com.kidscarpool.dto.RatingSummaryResponse;
+import com.kidscarpool.leaderboard.RatingAddedEvent;
 import com.kidscarpool.model.Rating;
+import com.kidscarpool.model.RatingSummary;
 import com.kidscarpool.model.Ride;
 import com.kidscarpool.repository.RatingRepository;
+import com.kidscarpool.repository.RatingSummaryRepository;
 import com.kidscarpool.repository.RideRepository;
-import com.kidscarpool.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,14 +28,24 @@ public class RatingService {
     private RatingRepository ratingRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private RatingSummaryRepository ratingSummaryRepository;
+    
+    @Autowired
+    private UserCache userCache;
     
     @Autowired
     private RideRepository rideRepository;
     
+    @Autowired
+    private Pagination pagination;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
     public RatingResponse createRating(RatingRequest request, Long raterId) {
         // Verify rated user exists
-        userRepository.findById(request.getRated_id())
+        userCache.findById(request.getRated_id())
                 .orElseThrow(() -> new RuntimeException("Rated user not found"));
         
         // Verify ride exists
@@ -48,8 +66,11 @@ public class RatingService {
         
         Rating savedRating = ratingRepository.save(rating);
         
-        // Update user's average rating
-        updateUserAverageRating(request.getRated_id());
+        // Aggregates move by this one rating, in SQL, so concurrent ratings can't lose each other
+        ratingSummaryRepository.addRating(request.getRated_id(), request.getRating());
+        ratingSummaryRepository.syncUser(request.getRated_id());
+        userCache.evictAfterCommit(request.getRated_id());
+        eventPublisher.publishEvent(new RatingAddedEvent(request.getRated_id(), request.getRating()));
         
         return RatingResponse.fromRating(savedRating);
     }
@@ -60,19 +81,28 @@ public class RatingService {
                 .collect(Collectors.toList());
     }
     
-    private void updateUserAverageRating(Long userId) {
-        List<Rating> ratings = ratingRepository.findByRatedId(userId);
-        if (!ratings.isEmpty()) {
-            double average = ratings.stream()
-                    .mapToInt(Rating::getRating)
-                    .average()
-                    .orElse(0.0);
-            
-            var user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            user.setAverageRating(average);
-            user.setTotalRatings(ratings.size());
-            userRepository.save(user);
+    public PageResponse<RatingResponse> getUserRatingsPage(Long ratedId, Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<Rating> ratings = ratingRepository.findByRatedIdAndIdLessThanOrderByIdDesc(
+                ratedId, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(ratings, pageSize, RatingResponse::fromRating, Rating::getId);
+    }
+    
+    public RatingSummaryResponse getRatingSummary(Long userId) {
+        userCache.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        int[] stars = ratingSummaryRepository.findById(userId)
+                .map(RatingSummary::histogram)
+                .orElse(new int[5]);
+        int count = 0;
+        long sum = 0;
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < stars.length; i++) {
+            histogram.put(i + 1, stars[i]);
+            count += stars[i];
+            sum += (long) (i + 1) * stars[i];
         }
+        return new RatingSummaryResponse(userId, count == 0 ? 0.0 : (double) sum / count, count, histogram);
     }
 }
@@ -0,0 +1,174 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.MatchingResponse;
+import com.kidscarpool.dto.RideMatchResponse;
+import com.kidscarpool.dto.RideRequestResponse;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.matching.RideMatcher;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class RideMatchingService {
+    
+    @Autowired
+    private SchoolRepository schoolRepository;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${matching.candidates-per-child:8}")
+    private int candidatesPerChild;
+    
+    @Value("${matching.max-detour-km:10}")
+    private double maxDetourKm;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private final Set<Long> applying = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public MatchingResponse suggestMatches(Long schoolId, String date) {
+        LocalDate rideDate = parseDate(date);
+        return toResponse(schoolId, rideDate, computeMatches(schoolId, rideDate));
+    }
+    
+    /**
+     * Creates a PENDING request per suggested match; drivers still accept them as usual. One run
+     * per school at a time, held until it commits: a second run would read the same free seats
+     * and unrequested children and book them twice.
+     */
+    public List<RideRequestResponse> applyMatches(Long schoolId, String date) {
+        LocalDate rideDate = parseDate(date);
+        if (!applying.add(schoolId)) {
+            throw new RuntimeException("Matches are already being applied for this school");
+        }
+        try {
+            return transactionTemplate.execute(status -> saveMatches(computeMatches(schoolId, rideDate)));
+        } finally {
+            applying.remove(schoolId);
+        }
+    }
+    
+    private List<RideRequestResponse> saveMatches(Matching matching) {
+        List<RideRequest> requests = new ArrayList<>();
+        for (RideMatcher.Assignment assignment : matching.result().assignments()) {
+            Child child = matching.children().get(assignment.passengerId());
+            RideRequest request = new RideRequest();
+            request.setRideId(assignment.vehicleId());
+            request.setRequesterId(child.getUserId());
+            request.setChildId(child.getId());
+            request.setPickupAddress(child.getHomeAddress() != null ? child.getHomeAddress()
+                    : child.getHomeLatitude() + "," + child.getHomeLongitude());
+            request.setPickupLatitude(child.getHomeLatitude());
+            request.setPickupLongitude(child.getHomeLongitude());
+            request.setStatus(RideRequest.RequestStatus.PENDING);
+            requests.add(request);
+        }
+        
+        return rideRequestRepository.saveAll(requests).stream()
+                .map(RideRequestResponse::fromRideRequest)
+                .collect(Collectors.toList());
+    }
+    
+    private Matching computeMatches(Long schoolId, LocalDate date) {
+        School school = schoolRepository.findById(schoolId)
+                .orElseThrow(() -> new RuntimeException("School not found"));
+        
+        List<Ride> rides = rideRepository.findBySchoolIdAndStatusAndRideDate(schoolId, Ride.RideStatus.ACTIVE, date);
+        
+        // Children already holding or waiting on a seat for this run are left alone, and seats
+        // with a pending request are not offered twice. This covers rides without coordinates
+        // too: they can't take a match, but a child seated on one is still booked.
+        List<RideRequest> existing = rides.isEmpty() ? List.of() : rideRequestRepository.findByRideIdInAndStatusIn(
+                rides.stream().map(Ride::getId).toList(),
+                List.of(RideRequest.RequestStatus.ACCEPTED, RideRequest.RequestStatus.PENDING));
+        Set<Long> alreadyRequested = existing.stream()
+                .map(RideRequest::getChildId)
+                .collect(Collectors.toSet());
+        Map<Long, Long> pendingByRide = existing.stream()
+                .filter(request -> request.getStatus() == RideRequest.RequestStatus.PENDING)
+                .collect(Collectors.groupingBy(RideRequest::getRideId, Collectors.counting()));
+        
+        Map<Long, Child> children = childRepository.findBySchoolId(schoolId).stream()
+                .filter(child -> !alreadyRequested.contains(child.getId()))
+                .collect(Collectors.toMap(Child::getId, Function.identity()));
+        
+        List<RideMatcher.Passenger> passengers = children.values().stream()
+                .filter(child -> GeoUtils.isValid(child.getHomeLatitude(), child.getHomeLongitude()))
+                .map(child -> new RideMatcher.Passenger(child.getId(), child.getHomeLatitude(), child.getHomeLongitude()))
+                .toList();
+        List<RideMatcher.Vehicle> vehicles = rides.stream()
+                .filter(ride -> GeoUtils.isValid(ride.getPickupLatitude(), ride.getPickupLongitude()))
+                .map(ride -> new RideMatcher.Vehicle(ride.getId(), ride.getPickupLatitude(), ride.getPickupLongitude(),
+                        ride.getAvailableSeats() - pendingByRide.getOrDefault(ride.getId(), 0L).intValue()))
+                .filter(vehicle -> vehicle.seats() > 0)
+                .toList();
+        
+        RideMatcher matcher = new RideMatcher(candidatesPerChild, maxDetourKm);
+        RideMatcher.Result result = matcher.match(school.getLatitude(), school.getLongitude(), passengers, vehicles);
+        return new Matching(children, result);
+    }
+    
+    private MatchingResponse toResponse(Long schoolId, LocalDate date, Matching matching) {
+        List<RideMatchResponse> matches = matching.result().assignments().stream()
+                .map(a -> new RideMatchResponse(a.passengerId(), matching.children().get(a.passengerId()).getName(),
+                        a.vehicleId(), a.detourKm()))
+                .collect(Collectors.toList());
+        
+        // Children without a home location can't be matched either
+        Set<Long> matched = matches.stream().map(RideMatchResponse::getChild_id).collect(Collectors.toSet());
+        List<Long> unmatched = matching.children().keySet().stream()
+                .filter(id -> !matched.contains(id))
+                .sorted()
+                .collect(Collectors.toList());
+        
+        return new MatchingResponse(schoolId, date.toString(), matches, unmatched, matching.result().totalDetourKm());
+    }
+    
+    private LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new RuntimeException("Invalid date value: " + date);
+        }
+    }
+    
+    private record Matching(Map<Long, Child> children, RideMatcher.Result result) {
+    }
+}
@@ -1,7 +1,12 @@
 package com.kidscarpool.service;
 
+import com.kidscarpool.dto.BulkStatusResponse;
+import com.kidscarpool.dto.PageResponse;
+import com.kidscarpool.dto.RideRequestDetailResponse;
 import com.kidscarpool.dto.RideRequestRequest;
 import com.kidscarpool.dto.RideRequestResponse;
+import com.kidscarpool.dto.StatusUpdateRequest;
+import com.kidscarpool.dto.StatusUpdateResult;
 import com.kidscarpool.model.Ride;
 import com.kidscarpool.model.RideRequest;
 import com.kidscarpool.repository.RideRepository;
@@ -9,19 +14,44 @@ import com.kidscarpool.repository.RideRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class RideRequestService {
     
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+    
     @Autowired
     private RideRequestRepository rideRequestRepository;
     
     @Autowired
     private RideRepository rideRepository;
     
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private Pagination pagination;
+    
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Autowired
+    private LivePositionService livePositionService;
+    
+    @Autowired
+    private EtaService etaService;
+    
     public RideRequestResponse createRideRequest(RideRequestRequest request, Long userId) {
         // Verify ride exists
         Ride ride = rideRepository.findById(request.getRide_id())
@@ -29,7 +59,8 @@ public class RideRequestService {
         
         // Check if seats are available
         if (ride.getAvailableSeats() <= 0) {
-            throw new RuntimeException("No seats available");
+            throw new RuntimeException(Boolean.TRUE.equals(ride.getWaitlistAutoAccept())
+                    ? "No seats available, join the waitlist instead" : "No seats available");
         }
         
         RideRequest rideRequest = new RideRequest();
@@ -37,6 +68,8 @@ public class RideRequestService {
         rideRequest.setRequesterId(userId);
         rideRequest.setChildId(request.getChild_id());
         rideRequest.setPickupAddress(request.getPickup_address());
+        rideRequest.setPickupLatitude(request.getPickup_latitude());
+        rideRequest.setPickupLongitude(request.getPickup_longitude());
         rideRequest.setStatus(RideRequest.RequestStatus.PENDING);
         
         RideRequest savedRequest = rideRequestRepository.save(rideRequest);
@@ -57,12 +90,33 @@ public class RideRequestService {
                 .collect(Collectors.toList());
     }
     
+    // Same check as getRideRequests, then one joined query however many requests the ride has
+    public List<RideRequestDetailResponse> getRideRequestDetails(Long rideId, Long userId) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to ride requests");
+        }
+        
+        return rideRequestRepository.findDetailsByRideId(rideId).stream()
+                .map(RideRequestDetailResponse::fromDetail)
+                .collect(Collectors.toList());
+    }
+    
     public List<RideRequestResponse> getUserRequests(Long userId) {
         return rideRequestRepository.findByRequesterId(userId).stream()
                 .map(RideRequestResponse::fromRideRequest)
                 .collect(Collectors.toList());
     }
     
+    public PageResponse<RideRequestResponse> getUserRequestsPage(Long userId, Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<RideRequest> requests = rideRequestRepository.findByRequesterIdAndIdLessThanOrderByIdDesc(
+                userId, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(requests, pageSize, RideRequestResponse::fromRideRequest, RideRequest::getId);
+    }
+    
     public RideRequestResponse updateRequestStatus(Long requestId, String status, Long userId) {
         RideRequest request = rideRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Ride request not found"));
@@ -75,27 +129,120 @@ public class RideRequestService {
             throw new RuntimeException("Unauthorized access to ride request");
         }
         
+        RideRequest.RequestStatus newStatus;
         try {
-            RideRequest.RequestStatus newStatus = RideRequest.RequestStatus.valueOf(status.toUpperCase());
-            request.setStatus(newStatus);
+            newStatus = RideRequest.RequestStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status value");
+        }
+        
+        RideRequest updatedRequest = applyTransition(request, newStatus);
+        return RideRequestResponse.fromRideRequest(updatedRequest);
+    }
+    
+    /**
+     * Applies several status changes with one read of the requests and rides and one write
+     * transaction. Accepts that would overfill a ride are reported as no_seats, in submitted
+     * order after the batch's own releases; the rest of the batch still goes through.
+     */
+    public BulkStatusResponse updateRequestStatuses(List<StatusUpdateRequest> updates, Long userId) {
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            Set<Long> requestIds = updates.stream().map(StatusUpdateRequest::getId).collect(Collectors.toSet());
+            Map<Long, RideRequest> requests = rideRequestRepository.findAllById(requestIds).stream()
+                    .collect(Collectors.toMap(RideRequest::getId, Function.identity()));
+            Set<Long> rideIds = requests.values().stream().map(RideRequest::getRideId).collect(Collectors.toSet());
+            Map<Long, Ride> rides = rideRepository.findAllById(rideIds).stream()
+                    .collect(Collectors.toMap(Ride::getId, Function.identity()));
             
-            // If accepted, decrease available seats
-            if (newStatus == RideRequest.RequestStatus.ACCEPTED) {
-                if (ride.getAvailableSeats() > 0) {
-                    ride.setAvailableSeats(ride.getAvailableSeats() - 1);
-                    rideRepository.save(ride);
+            StatusUpdateResult[] results = new StatusUpdateResult[updates.size()];
+            List<Integer> pending = new ArrayList<>();
+            Map<Integer, RideRequest.RequestStatus> targets = new HashMap<>();
+            Map<Long, Integer> firstIndex = new HashMap<>();
+            for (int i = 0; i < updates.size(); i++) {
+                StatusUpdateRequest update = updates.get(i);
+                RideRequest request = requests.get(update.getId());
+                Ride ride = request != null ? rides.get(request.getRideId()) : null;
+                if (request == null) {
+                    results[i] = new StatusUpdateResult(update.getId(), "not_found", null);
+                } else if (ride == null || !ride.getUserId().equals(userId)) {
+                    results[i] = new StatusUpdateResult(update.getId(), "unauthorized", null);
+                } else if (firstIndex.putIfAbsent(update.getId(), i) != null) {
+                    results[i] = new StatusUpdateResult(update.getId(), "duplicate", null);
                 } else {
-                    throw new RuntimeException("No seats available");
+                    RideRequest.RequestStatus target = parseStatus(update.getStatus());
+                    if (target == null) {
+                        results[i] = new StatusUpdateResult(update.getId(), "invalid_status", statusName(request.getStatus()));
+                    } else if (target == request.getStatus()) {
+                        results[i] = new StatusUpdateResult(update.getId(), "unchanged", statusName(target));
+                    } else {
+                        targets.put(i, target);
+                        pending.add(i);
+                    }
+                }
+            }
+            
+            // Seats the batch frees count before the seats it takes
+            Map<Long, Integer> freeSeats = new HashMap<>();
+            for (Ride ride : rides.values()) {
+                freeSeats.put(ride.getId(), ride.getAvailableSeats());
+            }
+            for (Integer i : pending) {
+                RideRequest request = requests.get(updates.get(i).getId());
+                if (request.getStatus() == RideRequest.RequestStatus.ACCEPTED) {
+                    freeSeats.merge(request.getRideId(), 1, Integer::sum);
                 }
             }
             
-            RideRequest updatedRequest = rideRequestRepository.save(request);
-            return RideRequestResponse.fromRideRequest(updatedRequest);
+            List<SeatReservationService.Transition> transitions = new ArrayList<>();
+            Set<Long> seatingChanged = new HashSet<>();
+            for (Integer i : pending) {
+                RideRequest request = requests.get(updates.get(i).getId());
+                RideRequest.RequestStatus target = targets.get(i);
+                if (target == RideRequest.RequestStatus.ACCEPTED) {
+                    if (freeSeats.get(request.getRideId()) <= 0) {
+                        results[i] = new StatusUpdateResult(request.getId(), "no_seats", statusName(request.getStatus()));
+                        continue;
+                    }
+                    freeSeats.merge(request.getRideId(), -1, Integer::sum);
+                }
+                transitions.add(new SeatReservationService.Transition(
+                        request.getId(), request.getRideId(), request.getStatus(), target));
+                if (request.getStatus() == RideRequest.RequestStatus.ACCEPTED || target == RideRequest.RequestStatus.ACCEPTED) {
+                    seatingChanged.add(request.getRideId());
+                }
+                results[i] = new StatusUpdateResult(request.getId(), "updated", statusName(target));
+            }
+            for (StatusUpdateResult result : results) {
+                if (result.getOutcome().equals("duplicate")) {
+                    result.setStatus(results[firstIndex.get(result.getId())].getStatus());
+                }
+            }
+            
+            if (transitions.isEmpty() || seatReservationService.transitionAll(transitions)) {
+                for (Long rideId : seatingChanged) {
+                    geofenceService.invalidate(rideId);
+                    routePlanningService.invalidate(rideId);
+                    etaService.invalidate(rideId);
+                    livePositionService.revokeAccess(rideId);
+                }
+                return new BulkStatusResponse(transitions.size(), List.of(results));
+            }
+        }
+        throw new RuntimeException("Ride requests are being updated concurrently, please retry");
+    }
+    
+    private static RideRequest.RequestStatus parseStatus(String status) {
+        try {
+            return RideRequest.RequestStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Invalid status value");
+            return null;
         }
     }
     
+    private static String statusName(RideRequest.RequestStatus status) {
+        return status.name().toLowerCase();
+    }
+    
     public void cancelRequest(Long requestId, Long userId) {
         RideRequest request = rideRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Ride request not found"));
@@ -104,7 +251,29 @@ public class RideRequestService {
             throw new RuntimeException("Unauthorized access to ride request");
         }
         
-        request.setStatus(RideRequest.RequestStatus.CANCELLED);
-        rideRequestRepository.save(request);
+        applyTransition(request, RideRequest.RequestStatus.CANCELLED);
+    }
+    
+    // Retries when another caller changed the request between our read and the conditional update
+    private RideRequest applyTransition(RideRequest request, RideRequest.RequestStatus newStatus) {
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            RideRequest.RequestStatus currentStatus = request.getStatus();
+            if (currentStatus == newStatus) {
+                return request;
+            }
+            if (seatReservationService.transition(request, currentStatus, newStatus)) {
+                if (currentStatus == RideRequest.RequestStatus.ACCEPTED || newStatus == RideRequest.RequestStatus.ACCEPTED) {
+                    geofenceService.invalidate(request.getRideId());
+                    routePlanningService.invalidate(request.getRideId());
+                    etaService.invalidate(request.getRideId());
+                    livePositionService.revokeAccess(request.getRideId());
+                }
+                return rideRequestRepository.findById(request.getId())
+                        .orElseThrow(() -> new RuntimeException("Ride request not found"));
+            }
+            request = rideRequestRepository.findById(request.getId())
+                    .orElseThrow(() -> new RuntimeException("Ride request not found"));
+        }
+        throw new RuntimeException("Ride request is being updated concurrently, please retry");
     }
 }
@@ -1,35 +1,79 @@
 package com.kidscarpool.service;
 
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.RideRequest;
 import com.kidscarpool.dto.RideResponse;
 import com.kidscarpool.model.Ride;
 import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class RideService {
     
+    // One- or two-digit hours and minutes ("7:5", "07:30"), optionally with seconds
+    static final DateTimeFormatter CLOCK_TIME = DateTimeFormatter.ofPattern("H:m[:s]");
+    
     @Autowired
     private RideRepository rideRepository;
     
+    @Autowired
+    private Pagination pagination;
+    
+    @Autowired
+    private NearbySearchService nearbySearchService;
+    
+    @Autowired
+    private LivePositionService livePositionService;
+    
+    @Autowired
+    private RideTrackService rideTrackService;
+    
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
     public RideResponse createRide(RideRequest request, Long userId) {
         Ride ride = new Ride();
         ride.setUserId(userId);
         ride.setSchoolId(request.getSchool_id());
-        ride.setRideDate(request.getRide_date());
-        ride.setRideTime(request.getRide_time());
+        ride.setRideDate(parseDate(request.getRide_date()));
+        ride.setRideTime(parseTime(request.getRide_time()));
         ride.setPickupLocation(request.getPickup_location());
+        ride.setPickupLatitude(request.getPickup_latitude());
+        ride.setPickupLongitude(request.getPickup_longitude());
         ride.setDropoffLocation(request.getDropoff_location());
         ride.setAvailableSeats(request.getAvailable_seats());
         ride.setTotalSeats(request.getTotal_seats());
         ride.setNotes(request.getNotes());
+        ride.setWaitlistAutoAccept(Boolean.TRUE.equals(request.getWaitlist_auto_accept()));
         ride.setStatus(Ride.RideStatus.ACTIVE);
         
         Ride savedRide = rideRepository.save(ride);
+        nearbySearchService.indexRide(savedRide);
+        leaderboardService.driverJoinedSchool(savedRide.getSchoolId(), savedRide.getUserId());
         return RideResponse.fromRide(savedRide);
     }
     
@@ -45,12 +89,57 @@ public class RideService {
                 .collect(Collectors.toList());
     }
     
+    public PageResponse<RideResponse> getRidesBySchoolPage(Long schoolId, Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<Ride> rides = rideRepository.findBySchoolIdAndIdLessThanOrderByIdDesc(
+                schoolId, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(rides, pageSize, RideResponse::fromRide, Ride::getId);
+    }
+    
     public List<RideResponse> getActiveRides() {
         return rideRepository.findByStatus(Ride.RideStatus.ACTIVE).stream()
                 .map(RideResponse::fromRide)
                 .collect(Collectors.toList());
     }
     
+    public PageResponse<RideResponse> getActiveRidesPage(Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<Ride> rides = rideRepository.findByStatusAndIdLessThanOrderByIdDesc(
+                Ride.RideStatus.ACTIVE, pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(rides, pageSize, RideResponse::fromRide, Ride::getId);
+    }
+    
+    public List<RideResponse> searchRides(Long schoolId, String dateFrom, String dateTo, String timeFrom,
+                                          String timeTo, Integer minSeats, String status, Integer limit) {
+        if (schoolId == null) {
+            throw new RuntimeException("school_id is required");
+        }
+        
+        Ride.RideStatus rideStatus;
+        try {
+            rideStatus = status == null ? Ride.RideStatus.ACTIVE : Ride.RideStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status value");
+        }
+        
+        Specification<Ride> spec = Specification.where(RideSpecifications.atSchool(schoolId))
+                .and(RideSpecifications.withStatus(rideStatus))
+                .and(RideSpecifications.onOrAfter(dateFrom == null ? null : parseDate(dateFrom)))
+                .and(RideSpecifications.onOrBefore(dateTo == null ? null : parseDate(dateTo)))
+                .and(RideSpecifications.departingFrom(timeFrom == null ? null : parseTime(timeFrom)))
+                .and(RideSpecifications.departingBy(timeTo == null ? null : parseTime(timeTo)))
+                .and(RideSpecifications.withFreeSeats(minSeats));
+        
+        int pageSize = pagination.pageSize(limit);
+        return rideRepository.findBy(spec, query -> query
+                        .sortBy(Sort.by("rideDate", "rideTime", "id"))
+                        .limit(pageSize)
+                        .all())
+                .stream()
+                .map(RideResponse::fromRide)
+                .collect(Collectors.toList());
+    }
+    
     public RideResponse getRide(Long id) {
         Ride ride = rideRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ride not found"));
@@ -66,6 +155,46 @@ public class RideService {
         }
         
         rideRepository.delete(ride);
+        nearbySearchService.removeRide(id);
+        livePositionService.closeRide(id);
+        geofenceService.closeRide(id);
+        etaService.closeRide(id);
+        waitlistService.closeRide(id);
+    }
+    
+    // Raising the total frees seats, which go to the waitlist in the same transaction
+    public RideResponse updateTotalSeats(Long id, Integer totalSeats, Long userId) {
+        Ride ride = rideRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to ride");
+        }
+        if (totalSeats == null || totalSeats < 1) {
+            throw new RuntimeException("Total seats must be at least 1");
+        }
+        if (!seatReservationService.resizeRide(id, totalSeats)) {
+            throw new RuntimeException("More seats are already taken than that");
+        }
+        
+        Ride updatedRide = rideRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        nearbySearchService.indexRide(updatedRide);
+        return RideResponse.fromRide(updatedRide);
+    }
+    
+    public RideResponse updateWaitlistAutoAccept(Long id, boolean enabled, Long userId) {
+        Ride ride = rideRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to ride");
+        }
+        
+        waitlistService.setAutoAccept(id, enabled);
+        Ride updatedRide = rideRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        return RideResponse.fromRide(updatedRide);
     }
     
     public RideResponse updateRideStatus(Long id, String status, Long userId) {
@@ -78,11 +207,42 @@ public class RideService {
         
         try {
             Ride.RideStatus newStatus = Ride.RideStatus.valueOf(status.toUpperCase());
-            ride.setStatus(newStatus);
-            Ride updatedRide = rideRepository.save(ride);
+            rideRepository.updateStatus(id, newStatus, LocalDateTime.now());
+            Ride updatedRide = rideRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Ride not found"));
+            nearbySearchService.indexRide(updatedRide);
+            if (newStatus != Ride.RideStatus.ACTIVE) {
+                livePositionService.closeRide(id);
+                geofenceService.closeRide(id);
+                etaService.closeRide(id);
+                waitlistService.closeRide(id);
+            }
+            if (newStatus == Ride.RideStatus.COMPLETED) {
+                rideTrackService.rideCompleted(id);
+            }
             return RideResponse.fromRide(updatedRide);
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid status value");
         }
     }
+    
+    // Accepts plain dates ("2024-09-03") and the full ISO timestamps the web client sends
+    private LocalDate parseDate(String value) {
+        try {
+            if (value.length() > 10 && value.charAt(10) == 'T') {
+                return LocalDate.parse(value.substring(0, 10));
+            }
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date value: " + value);
+        }
+    }
+    
+    private LocalTime parseTime(String value) {
+        try {
+            return LocalTime.parse(value.trim(), CLOCK_TIME);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid time value: " + value);
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.TrackPointResponse;
+import com.kidscarpool.dto.TrackResponse;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideLocation;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.RideTrack;
+import com.kidscarpool.repository.RideLocationRepository;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.RideTrackRepository;
+import com.kidscarpool.tracking.TrackCodec;
+import com.kidscarpool.tracking.TrackPoint;
+import com.kidscarpool.tracking.TrackSimplifier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Keeps completed rides' tracks small. Raw ride_locations rows are served as-is while a ride is
+// recent; once it has been COMPLETED for the configured time, its track is simplified, encoded
+// into one ride_tracks blob and the raw rows are deleted.
+@Service
+public class RideTrackService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RideTrackService.class);
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private RideLocationRepository rideLocationRepository;
+    
+    @Autowired
+    private RideTrackRepository rideTrackRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${tracking.track.simplify-tolerance-m:5}")
+    private double simplifyToleranceMeters;
+    
+    @Value("${tracking.track.compact-after-minutes:1440}")
+    private long compactAfterMinutes;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private ScheduledExecutorService compactor;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "track-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+    
+    // Pending compactions only live in memory, so pick up completed rides that still have raw rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBacklog() {
+        List<Long> rideIds = rideLocationRepository.findRideIdsWithLocations(Ride.RideStatus.COMPLETED);
+        for (Ride ride : rideRepository.findAllById(rideIds)) {
+            scheduleCompaction(ride.getId(), ride.getUpdatedAt());
+        }
+    }
+    
+    public void rideCompleted(Long rideId) {
+        scheduleCompaction(rideId, LocalDateTime.now());
+    }
+    
+    /**
+     * Simplifies and encodes the ride's raw fixes, merging them into any track already stored,
+     * and deletes the raw rows. Returns the number of raw rows compacted.
+     */
+    public int compact(Long rideId) {
+        return transactionTemplate.execute(status -> {
+            List<RideLocation> raw = rideLocationRepository.findByRideIdOrderByCreatedAtAsc(rideId);
+            if (raw.isEmpty()) {
+                return 0;
+            }
+            
+            Optional<RideTrack> existing = rideTrackRepository.findById(rideId);
+            List<TrackPoint> points = new ArrayList<>(existing.map(track -> TrackCodec.decode(track.getEncoded())).orElse(List.of()));
+            raw.forEach(location -> points.add(toPoint(location)));
+            points.sort(Comparator.comparingLong(TrackPoint::recordedAt));
+            
+            List<TrackPoint> simplified = TrackSimplifier.simplify(points, simplifyToleranceMeters);
+            int originalCount = existing.map(RideTrack::getOriginalPointCount).orElse(0) + raw.size();
+            rideTrackRepository.save(new RideTrack(rideId, simplified.size(), originalCount,
+                    TrackCodec.encode(simplified), existing.map(RideTrack::getCreatedAt).orElse(null)));
+            rideLocationRepository.deleteByRideId(rideId);
+            
+            log.info("Compacted track of ride {}: {} fixes to {} points", rideId, originalCount, simplified.size());
+            return raw.size();
+        });
+    }
+    
+    public TrackResponse getTrack(Long rideId, Long userId) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)
+                && !rideRequestRepository.existsByRideIdAndRequesterIdAndStatus(rideId, userId, RideRequest.RequestStatus.ACCEPTED)) {
+            throw new RuntimeException("Unauthorized access to ride track");
+        }
+        
+        Optional<RideTrack> track = rideTrackRepository.findById(rideId);
+        if (track.isPresent()) {
+            List<TrackPointResponse> points = TrackCodec.decode(track.get().getEncoded()).stream()
+                    .map(point -> new TrackPointResponse(point.latitude(), point.longitude(), toDateTime(point.recordedAt())))
+                    .collect(Collectors.toList());
+            return new TrackResponse(rideId, true, track.get().getOriginalPointCount(), points);
+        }
+        
+        List<TrackPointResponse> points = rideLocationRepository.findByRideIdOrderByCreatedAtAsc(rideId).stream()
+                .map(location -> new TrackPointResponse(location.getLatitude(), location.getLongitude(), location.getCreatedAt()))
+                .collect(Collectors.toList());
+        return new TrackResponse(rideId, false, points.size(), points);
+    }
+    
+    private void scheduleCompaction(Long rideId, LocalDateTime completedAt) {
+        LocalDateTime due = (completedAt != null ? completedAt : LocalDateTime.now()).plusMinutes(compactAfterMinutes);
+        long delayMs = Math.max(0, Duration.between(LocalDateTime.now(), due).toMillis());
+        compactor.schedule(() -> {
+            try {
+                compact(rideId);
+            } catch (RuntimeException e) {
+                log.error("Failed to compact track of ride {}", rideId, e);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+    
+    private static TrackPoint toPoint(RideLocation location) {
+        long recordedAt = location.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new TrackPoint(location.getLatitude(), location.getLongitude(), recordedAt);
+    }
+    
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
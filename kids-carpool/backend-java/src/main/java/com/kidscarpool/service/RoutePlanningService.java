@@ -0,0 +1,229 @@
+package com.kidscarpool.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kidscarpool.dto.RouteResponse;
+import com.kidscarpool.dto.RouteStopResponse;
+import com.kidscarpool.geo.GeoUtils;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import com.kidscarpool.routing.RoutePlanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Plans the pickup order for a ride's accepted requests. Plans are cached per ride under a version
+// stamp. A ride's start, its school and its requests' coordinates never change after creation,
+// so only a change to the accepted set bumps the stamp, and a hit needs no query at all.
+@Service
+public class RoutePlanningService {
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private SchoolRepository schoolRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${routing.average-speed-kmh:30}")
+    private double averageSpeedKmh;
+    
+    @Value("${routing.stop-minutes:2}")
+    private double stopMinutes;
+    
+    @Value("${routing.max-onboard-minutes:45}")
+    private double maxOnboardMinutes;
+    
+    @Value("${routing.time-budget-ms:200}")
+    private long timeBudgetMs;
+    
+    @Value("${routing.starts:8}")
+    private int starts;
+    
+    @Value("${routing.cache.max-size:1000}")
+    private long cacheMaxSize;
+    
+    private RoutePlanner planner;
+    
+    private Cache<Long, CachedRoute> routes;
+    
+    // Stamps come from one sequence, so a ride whose stamp was evicted can never match an old plan
+    private Cache<Long, Long> versions;
+    
+    private final AtomicLong versionSequence = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        planner = new RoutePlanner(averageSpeedKmh, stopMinutes, maxOnboardMinutes, Duration.ofMillis(timeBudgetMs), starts);
+        routes = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        versions = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, routes, "routes");
+    }
+    
+    /** Called once a change to the ride's accepted requests has committed. */
+    public void invalidate(Long rideId) {
+        versions.put(rideId, versionSequence.incrementAndGet());
+        routes.invalidate(rideId);
+    }
+    
+    public RouteResponse getRoute(Long rideId, Long userId) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        if (!ride.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to ride route");
+        }
+        return planRoute(ride);
+    }
+    
+    /**
+     * Returns the current plan for the ride without an access check, for callers that already
+     * hold the ride. Served from the cache while the inputs are unchanged.
+     */
+    public RouteResponse planRoute(Ride ride) {
+        Long rideId = ride.getId();
+        // Read before the inputs, so a change committed while planning leaves this plan stale
+        long version = currentVersion(rideId);
+        CachedRoute cached = routes.getIfPresent(rideId);
+        if (cached != null && cached.version() == version) {
+            return cached.response();
+        }
+        
+        School school = schoolRepository.findById(ride.getSchoolId())
+                .orElseThrow(() -> new RuntimeException("School not found"));
+        if (!GeoUtils.isValid(school.getLatitude(), school.getLongitude())) {
+            throw new RuntimeException("School has no valid coordinates");
+        }
+        
+        List<RideRequest> accepted = rideRequestRepository.findByRideIdAndStatus(rideId, RideRequest.RequestStatus.ACCEPTED).stream()
+                .sorted(Comparator.comparing(RideRequest::getId))
+                .toList();
+        List<Long> unrouted = new ArrayList<>();
+        List<RoutePlanner.Stop> stops = resolveStops(accepted, unrouted);
+        
+        RoutePlanner.Point origin = GeoUtils.isValid(ride.getPickupLatitude(), ride.getPickupLongitude())
+                ? new RoutePlanner.Point(ride.getPickupLatitude(), ride.getPickupLongitude()) : null;
+        RoutePlanner.Point destination = new RoutePlanner.Point(school.getLatitude(), school.getLongitude());
+        LocalTime schoolStart = parseStartTime(school.getStartTime());
+        
+        RoutePlanner.Plan plan = planner.plan(origin, stops, destination, minuteOfDay(ride.getRideTime()),
+                schoolStart == null ? null : (double) minuteOfDay(schoolStart));
+        RouteResponse response = toResponse(ride, schoolStart, plan, accepted, unrouted);
+        routes.put(rideId, new CachedRoute(version, response));
+        return response;
+    }
+    
+    private long currentVersion(Long rideId) {
+        Long version = versions.getIfPresent(rideId);
+        return version == null ? 0 : version;
+    }
+    
+    /**
+     * Resolves where each request is picked up, using the request's own coordinates or else the
+     * child's home. Stop ids are request ids; requests with neither go into {@code unrouted}.
+     */
+    public List<RoutePlanner.Stop> resolveStops(List<RideRequest> requests, List<Long> unrouted) {
+        Map<Long, Child> children = childRepository.findAllById(requests.stream().map(RideRequest::getChildId).toList()).stream()
+                .collect(Collectors.toMap(Child::getId, Function.identity()));
+        
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        for (RideRequest request : requests) {
+            RoutePlanner.Stop stop = toStop(request, children.get(request.getChildId()));
+            if (stop == null) {
+                unrouted.add(request.getId());
+            } else {
+                stops.add(stop);
+            }
+        }
+        return stops;
+    }
+    
+    private RoutePlanner.Stop toStop(RideRequest request, Child child) {
+        if (GeoUtils.isValid(request.getPickupLatitude(), request.getPickupLongitude())) {
+            return new RoutePlanner.Stop(request.getId(), request.getPickupLatitude(), request.getPickupLongitude());
+        }
+        if (child != null && GeoUtils.isValid(child.getHomeLatitude(), child.getHomeLongitude())) {
+            return new RoutePlanner.Stop(request.getId(), child.getHomeLatitude(), child.getHomeLongitude());
+        }
+        return null;
+    }
+    
+    private RouteResponse toResponse(Ride ride, LocalTime schoolStart, RoutePlanner.Plan plan,
+                                     List<RideRequest> accepted, List<Long> unrouted) {
+        Map<Long, RideRequest> requests = accepted.stream()
+                .collect(Collectors.toMap(RideRequest::getId, Function.identity()));
+        
+        List<RouteStopResponse> stops = plan.stops().stream()
+                .map(scheduled -> {
+                    RideRequest request = requests.get(scheduled.stop().id());
+                    return new RouteStopResponse(request.getId(), request.getChildId(), request.getPickupAddress(),
+                            scheduled.stop().lat(), scheduled.stop().lon(),
+                            formatMinute(scheduled.pickupMinute()), round(scheduled.onboardMinutes()));
+                })
+                .collect(Collectors.toList());
+        
+        return new RouteResponse(ride.getId(), ride.getSchoolId(), ride.getRideTime().toString(),
+                schoolStart == null ? null : schoolStart.toString(), formatMinute(plan.arrivalMinute()),
+                round(plan.totalKm()), round(plan.lateMinutes()), plan.exhaustive(), stops, unrouted);
+    }
+    
+    private LocalTime parseStartTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(value.trim(), RideService.CLOCK_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+    
+    private static String formatMinute(double minute) {
+        long seconds = Math.round(minute * 60) % (24 * 60 * 60);
+        return LocalTime.ofSecondOfDay(seconds).withSecond(0).toString();
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+    
+    private record CachedRoute(long version, RouteResponse response) {
+    }
+}
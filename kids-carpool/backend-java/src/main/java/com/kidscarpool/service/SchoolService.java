@@ -1,5 +1,6 @@
 package com.kidscarpool.service;
 
+import com.kidscarpool.dto.PageResponse;
 import com.kidscarpool.dto.SchoolRequest;
 import com.kidscarpool.dto.SchoolResponse;
 import com.kidscarpool.model.School;
@@ -16,6 +17,15 @@ public class SchoolService {
     @Autowired
     private SchoolRepository schoolRepository;
     
+    @Autowired
+    private Pagination pagination;
+    
+    @Autowired
+    private NearbySearchService nearbySearchService;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
     public SchoolResponse createSchool(SchoolRequest request) {
         School school = new School();
         school.setName(request.getName());
@@ -29,6 +39,7 @@ public class SchoolService {
         school.setEndTime(request.getEnd_time());
         
         School savedSchool = schoolRepository.save(school);
+        nearbySearchService.indexSchool(savedSchool);
         return SchoolResponse.fromSchool(savedSchool);
     }
     
@@ -38,6 +49,13 @@ public class SchoolService {
                 .collect(Collectors.toList());
     }
     
+    public PageResponse<SchoolResponse> getSchoolsPage(Long cursor, Integer limit) {
+        int pageSize = pagination.pageSize(limit);
+        List<School> schools = schoolRepository.findByIdLessThanOrderByIdDesc(
+                pagination.before(cursor), pagination.fetchLimit(pageSize));
+        return PageResponse.of(schools, pageSize, SchoolResponse::fromSchool, School::getId);
+    }
+    
     public SchoolResponse getSchool(Long id) {
         School school = schoolRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("School not found"));
@@ -48,5 +66,7 @@ public class SchoolService {
         School school = schoolRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("School not found"));
         schoolRepository.delete(school);
+        nearbySearchService.removeSchool(id);
+        leaderboardService.removeSchool(id);
     }
 }
@@ -0,0 +1,118 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Moves a ride request between statuses and keeps Ride.availableSeats in step, using only
+// conditional updates. The transaction starts with a write, so SQLite takes the write lock
+// up front instead of failing a read-then-write upgrade under contention.
+@Service
+public class SeatReservationService {
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    /**
+     * Returns false if the request was no longer in {@code from}; nothing is changed in that case.
+     * Throws if the transition needs a seat and the ride is full.
+     */
+    @Transactional
+    public boolean transition(RideRequest request, RideRequest.RequestStatus from, RideRequest.RequestStatus to) {
+        if (rideRequestRepository.compareAndSetStatus(request.getId(), from, to, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        
+        boolean wasHoldingSeat = from == RideRequest.RequestStatus.ACCEPTED;
+        boolean needsSeat = to == RideRequest.RequestStatus.ACCEPTED;
+        
+        if (needsSeat && !wasHoldingSeat) {
+            if (rideRepository.reserveSeat(request.getRideId()) == 0) {
+                throw new RuntimeException("No seats available");
+            }
+        } else if (wasHoldingSeat && !needsSeat) {
+            rideRepository.releaseSeat(request.getRideId());
+            waitlistService.fillFreeSeats(request.getRideId());
+        }
+        return true;
+    }
+    
+    /**
+     * Applies a batch in one transaction with one conditional update per (from, to) pair and one
+     * seat adjustment per ride. Returns false, with nothing changed, if any request has left its
+     * {@code from} status or a ride no longer has the seats since the batch was planned.
+     */
+    @Transactional
+    public boolean transitionAll(List<Transition> transitions) {
+        Map<StatusChange, List<Long>> idsByChange = new LinkedHashMap<>();
+        Map<Long, Integer> seatsByRide = new LinkedHashMap<>();
+        for (Transition transition : transitions) {
+            idsByChange.computeIfAbsent(new StatusChange(transition.from(), transition.to()), change -> new ArrayList<>())
+                    .add(transition.requestId());
+            seatsByRide.merge(transition.rideId(), seatsTaken(transition.from(), transition.to()), Integer::sum);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<StatusChange, List<Long>> entry : idsByChange.entrySet()) {
+            StatusChange change = entry.getKey();
+            List<Long> ids = entry.getValue();
+            if (rideRequestRepository.compareAndSetStatuses(ids, change.from(), change.to(), now) != ids.size()) {
+                return rollBack();
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : seatsByRide.entrySet()) {
+            if (entry.getValue() != 0 && rideRepository.takeSeats(entry.getKey(), entry.getValue()) == 0) {
+                return rollBack();
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : seatsByRide.entrySet()) {
+            if (entry.getValue() < 0) {
+                waitlistService.fillFreeSeats(entry.getKey());
+            }
+        }
+        return true;
+    }
+    
+    /** Returns false if the ride already has more seats taken than {@code totalSeats}. */
+    @Transactional
+    public boolean resizeRide(Long rideId, int totalSeats) {
+        if (rideRepository.resizeSeats(rideId, totalSeats) == 0) {
+            return false;
+        }
+        waitlistService.fillFreeSeats(rideId);
+        return true;
+    }
+    
+    private static int seatsTaken(RideRequest.RequestStatus from, RideRequest.RequestStatus to) {
+        boolean wasHoldingSeat = from == RideRequest.RequestStatus.ACCEPTED;
+        boolean needsSeat = to == RideRequest.RequestStatus.ACCEPTED;
+        return needsSeat == wasHoldingSeat ? 0 : needsSeat ? 1 : -1;
+    }
+    
+    private static boolean rollBack() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        return false;
+    }
+    
+    public record Transition(Long requestId, Long rideId, RideRequest.RequestStatus from, RideRequest.RequestStatus to) {
+    }
+    
+    private record StatusChange(RideRequest.RequestStatus from, RideRequest.RequestStatus to) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.kidscarpool.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kidscarpool.model.User;
+import com.kidscarpool.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Read-through cache in front of UserRepository lookups by id and by email.
+// Cached users are shared instances: update through the repository, then call put().
+@Component
+public class UserCache {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${user.cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${user.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    private Cache<Long, User> usersById;
+    
+    private Cache<String, Long> idsByEmail;
+    
+    @PostConstruct
+    public void init() {
+        usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.byEmail");
+    }
+    
+    public Optional<User> findById(Long id) {
+        User user = usersById.get(id, key -> userRepository.findById(key).orElse(null));
+        if (user != null) {
+            idsByEmail.put(user.getEmail(), user.getId());
+        }
+        return Optional.ofNullable(user);
+    }
+    
+    public Optional<User> findByEmail(String email) {
+        Long id = idsByEmail.getIfPresent(email);
+        if (id != null) {
+            User user = usersById.getIfPresent(id);
+            if (user != null && user.getEmail().equals(email)) {
+                return Optional.of(user);
+            }
+        }
+        
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(this::put);
+        return user;
+    }
+    
+    public void put(User user) {
+        usersById.put(user.getId(), user);
+        idsByEmail.put(user.getEmail(), user.getId());
+    }
+    
+    // For columns changed in SQL behind the entity's back; the next read reloads the row
+    public void evict(Long id) {
+        usersById.invalidate(id);
+    }
+    
+    // Inside a transaction the eviction waits for the commit, or a read in between would cache the old row
+    public void evictAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+}
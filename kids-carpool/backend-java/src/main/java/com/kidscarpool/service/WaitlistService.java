@@ -0,0 +1,247 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.RideRequestRequest;
+import com.kidscarpool.dto.WaitlistEntryResponse;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.WaitlistEntry;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.WaitlistEntryRepository;
+import com.kidscarpool.waitlist.WaitlistChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// FIFO waitlists for full rides whose driver opted in to auto-accept. The ride_waitlist table is
+// the source of truth and heads are promoted, as accepted requests, inside the transaction that
+// frees the seat. Each ride's queue is mirrored in memory
+// for listing and position reads; a committed change drops the copy and the next read reloads it.
+@Service
+public class WaitlistService {
+    
+    // A child with one of these on the ride already has, or is about to get, an answer from the driver
+    private static final List<RideRequest.RequestStatus> OPEN_REQUEST =
+            List.of(RideRequest.RequestStatus.PENDING, RideRequest.RequestStatus.ACCEPTED);
+    
+    private static final String PROMOTED_MESSAGE =
+            "A seat opened up on the ride you were waiting for, and your request has been accepted.";
+    
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private MessageService messageService;
+    
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Autowired
+    private LivePositionService livePositionService;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final Map<Long, Queue> queues = new ConcurrentHashMap<>();
+    
+    // Bumped on every invalidation so a load that raced with a change is not cached
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    
+    @Transactional
+    public WaitlistEntryResponse join(RideRequestRequest request, Long userId) {
+        Ride ride = rideRepository.findById(request.getRide_id())
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        
+        // The head is seated without the driver reviewing it, so only a child's own parent may queue it
+        Child child = childRepository.findById(request.getChild_id())
+                .orElseThrow(() -> new RuntimeException("Child not found"));
+        if (!child.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to child");
+        }
+        if (ride.getStatus() != Ride.RideStatus.ACTIVE) {
+            throw new RuntimeException("Ride is not active");
+        }
+        if (!Boolean.TRUE.equals(ride.getWaitlistAutoAccept())) {
+            throw new RuntimeException("This ride does not take a waitlist");
+        }
+        if (ride.getAvailableSeats() > 0) {
+            throw new RuntimeException("Seats are available, request the ride directly");
+        }
+        if (rideRequestRepository.existsByRideIdAndChildIdAndStatusIn(ride.getId(), request.getChild_id(), OPEN_REQUEST)) {
+            throw new RuntimeException("Child already has a request for this ride");
+        }
+        if (waitlistRepository.existsByRideIdAndChildId(ride.getId(), request.getChild_id())) {
+            throw new RuntimeException("Child is already on the waitlist for this ride");
+        }
+        
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setRideId(ride.getId());
+        entry.setRequesterId(userId);
+        entry.setChildId(request.getChild_id());
+        entry.setPickupAddress(request.getPickup_address());
+        entry.setPickupLatitude(request.getPickup_latitude());
+        entry.setPickupLongitude(request.getPickup_longitude());
+        WaitlistEntry savedEntry = waitlistRepository.save(entry);
+        
+        eventPublisher.publishEvent(new WaitlistChangedEvent(ride.getId(), false));
+        long position = waitlistRepository.countByRideIdAndIdLessThanEqual(ride.getId(), savedEntry.getId());
+        return WaitlistEntryResponse.fromEntry(savedEntry, (int) position);
+    }
+    
+    @Transactional
+    public void leave(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+        
+        if (!entry.getRequesterId().equals(userId)) {
+            throw new RuntimeException("Unauthorized access to waitlist entry");
+        }
+        
+        waitlistRepository.delete(entry);
+        eventPublisher.publishEvent(new WaitlistChangedEvent(entry.getRideId(), false));
+    }
+    
+    /** The driver sees the whole queue; anyone else sees only their own entries. */
+    public List<WaitlistEntryResponse> getWaitlist(Long rideId, Long userId) {
+        Queue queue = queue(rideId);
+        boolean driver = queue.driverId().equals(userId);
+        List<WaitlistEntryResponse> response = new ArrayList<>();
+        for (int i = 0; i < queue.entries().size(); i++) {
+            WaitlistEntry entry = queue.entries().get(i);
+            if (driver || entry.getRequesterId().equals(userId)) {
+                response.add(WaitlistEntryResponse.fromEntry(entry, i + 1));
+            }
+        }
+        return response;
+    }
+    
+    /**
+     * Moves waitlist heads into accepted requests while the ride has free seats, inside the
+     * caller's transaction so the seat cannot be taken in between. Each promoted parent gets a
+     * message from the driver. A head whose child meanwhile got a pending or accepted request on
+     * the ride is dropped instead. Returns how many entries were promoted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int fillFreeSeats(Long rideId) {
+        Optional<WaitlistEntry> head = waitlistRepository.findFirstByRideIdOrderByIdAsc(rideId);
+        if (head.isEmpty()) {
+            return 0;
+        }
+        Ride ride = rideRepository.findById(rideId).orElse(null);
+        if (ride == null || ride.getStatus() != Ride.RideStatus.ACTIVE || !Boolean.TRUE.equals(ride.getWaitlistAutoAccept())) {
+            return 0;
+        }
+        
+        int promoted = 0;
+        boolean dropped = false;
+        while (head.isPresent()) {
+            WaitlistEntry entry = head.get();
+            if (rideRequestRepository.existsByRideIdAndChildIdAndStatusIn(rideId, entry.getChildId(), OPEN_REQUEST)) {
+                waitlistRepository.deleteById(entry.getId());
+                dropped = true;
+                head = waitlistRepository.findFirstByRideIdOrderByIdAsc(rideId);
+                continue;
+            }
+            if (rideRepository.reserveSeat(rideId) == 0) {
+                break;
+            }
+            RideRequest request = new RideRequest();
+            request.setRideId(rideId);
+            request.setRequesterId(entry.getRequesterId());
+            request.setChildId(entry.getChildId());
+            request.setPickupAddress(entry.getPickupAddress());
+            request.setPickupLatitude(entry.getPickupLatitude());
+            request.setPickupLongitude(entry.getPickupLongitude());
+            request.setStatus(RideRequest.RequestStatus.ACCEPTED);
+            rideRequestRepository.save(request);
+            waitlistRepository.deleteById(entry.getId());
+            messageService.deliver(ride.getUserId(), entry.getRequesterId(), PROMOTED_MESSAGE);
+            promoted++;
+            head = waitlistRepository.findFirstByRideIdOrderByIdAsc(rideId);
+        }
+        if (promoted > 0 || dropped) {
+            eventPublisher.publishEvent(new WaitlistChangedEvent(rideId, promoted > 0));
+        }
+        return promoted;
+    }
+    
+    // Turning auto-accept off closes the waitlist in the same transaction; queued parents would otherwise wait for nothing
+    @Transactional
+    public void setAutoAccept(Long rideId, boolean enabled) {
+        rideRepository.setWaitlistAutoAccept(rideId, enabled, LocalDateTime.now());
+        if (!enabled) {
+            waitlistRepository.deleteAllByRide(rideId);
+            eventPublisher.publishEvent(new WaitlistChangedEvent(rideId, false));
+        }
+    }
+    
+    // Called when a ride is deleted or stops being active; nobody can be promoted onto it any more
+    @Transactional
+    public void closeRide(Long rideId) {
+        waitlistRepository.deleteAllByRide(rideId);
+        eventPublisher.publishEvent(new WaitlistChangedEvent(rideId, false));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        invalidate(event.rideId());
+        if (event.seatsAssigned()) {
+            geofenceService.invalidate(event.rideId());
+            routePlanningService.invalidate(event.rideId());
+            etaService.invalidate(event.rideId());
+            livePositionService.revokeAccess(event.rideId());
+        }
+    }
+    
+    private Queue queue(Long rideId) {
+        Queue cached = queues.get(rideId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generations.getOrDefault(rideId, 0L);
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+        Queue loaded = new Queue(ride.getUserId(), List.copyOf(waitlistRepository.findByRideIdOrderByIdAsc(rideId)));
+        synchronized (this) {
+            if (generations.getOrDefault(rideId, 0L) == generation) {
+                queues.put(rideId, loaded);
+            }
+        }
+        return loaded;
+    }
+    
+    private synchronized void invalidate(Long rideId) {
+        generations.merge(rideId, 1L, Long::sum);
+        queues.remove(rideId);
+    }
+    
+    private record Queue(Long driverId, List<WaitlistEntry> entries) {
+    }
+}
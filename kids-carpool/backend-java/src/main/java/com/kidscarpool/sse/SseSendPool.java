@@ -0,0 +1,123 @@
+package com.kidscarpool.sse;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs blocking SSE writes on a fixed number of sender threads. SseEmitter.send blocks while the
+// client's socket buffer is full, so a watchdog marks any send still running after the stall
+// timeout: its onStall callback evicts the stream, and a replacement thread is started so the
+// stalled write no longer counts against the pool. The stalled thread ends when the container's
+// write timeout fails the write; at most maxStalled replacements are running at once.
+public class SseSendPool {
+    
+    private final int threads;
+    
+    private final int maxStalled;
+    
+    private final long stallTimeoutNanos;
+    
+    private final ThreadPoolExecutor executor;
+    
+    private final ScheduledExecutorService watchdog;
+    
+    private final Set<Send> running = ConcurrentHashMap.newKeySet();
+    
+    private int stalled;
+    
+    public SseSendPool(String name, int threads, int maxStalled, long stallTimeoutMs) {
+        this.threads = threads;
+        this.maxStalled = maxStalled;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads + maxStalled,
+                30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> daemon(runnable, name + "-send-" + threadCount.incrementAndGet()));
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, name + "-watchdog"));
+        long checkMs = Math.max(1, stallTimeoutMs / 4);
+        watchdog.scheduleWithFixedDelay(this::checkStalls, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Queues a send. If it is still running after the stall timeout, onStall is called once from
+     * the watchdog; it must not touch the emitter, whose send lock the stalled write is holding.
+     */
+    public void execute(Runnable send, Runnable onStall) {
+        executor.execute(() -> {
+            Send current = new Send(System.nanoTime(), onStall);
+            running.add(current);
+            try {
+                send.run();
+            } finally {
+                running.remove(current);
+                finish(current);
+            }
+        });
+    }
+    
+    public synchronized int stalledCount() {
+        return stalled;
+    }
+    
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+    
+    private void checkStalls() {
+        long now = System.nanoTime();
+        for (Send send : running) {
+            if (now - send.startedAt > stallTimeoutNanos && markStalled(send)) {
+                send.onStall.run();
+            }
+        }
+    }
+    
+    private synchronized boolean markStalled(Send send) {
+        if (send.finished || send.stalled) {
+            return false;
+        }
+        send.stalled = true;
+        if (stalled < maxStalled) {
+            send.replaced = true;
+            stalled++;
+            executor.setCorePoolSize(threads + stalled);
+        }
+        return true;
+    }
+    
+    private synchronized void finish(Send send) {
+        send.finished = true;
+        if (send.replaced) {
+            stalled--;
+            executor.setCorePoolSize(threads + stalled);
+        }
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static class Send {
+        final long startedAt;
+        final Runnable onStall;
+        boolean stalled;
+        boolean replaced;
+        boolean finished;
+        
+        Send(long startedAt, Runnable onStall) {
+            this.startedAt = startedAt;
+            this.onStall = onStall;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.kidscarpool.tracking;
+
+import com.kidscarpool.geo.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Running arrival estimate for one ride, updated fix by fix.
+ *
+ * <p>Speed is an exponentially weighted average of the speed between consecutive fixes, weighted
+ * by elapsed time so bursts of closely spaced fixes do not dominate. The remaining route is the
+ * planned stop order minus the stops already reached, then the school; each leg is the straight
+ * distance at the smoothed speed (never below {@code minSpeedKmh}) plus a dwell per pickup.
+ * Not thread-safe: callers serialize access per ride.
+ */
+public class EtaEstimator {
+    
+    // Fixes closer together than this give a speed that is mostly GPS noise
+    private static final long MIN_SAMPLE_MILLIS = 1000;
+    
+    private final double defaultSpeedKmh;
+    private final double minSpeedKmh;
+    private final double speedTimeConstantSeconds;
+    private final double dwellMinutes;
+    private final double reachedMeters;
+    
+    private List<Waypoint> stops = List.of();
+    private Waypoint school;
+    private final Set<Long> reached = new HashSet<>();
+    private boolean arrived;
+    
+    private LocationFix last;
+    private double speedKmh = Double.NaN;
+    
+    public EtaEstimator(double defaultSpeedKmh, double minSpeedKmh, double speedTimeConstantSeconds,
+                        double dwellMinutes, double reachedMeters) {
+        this.defaultSpeedKmh = defaultSpeedKmh;
+        this.minSpeedKmh = minSpeedKmh;
+        this.speedTimeConstantSeconds = speedTimeConstantSeconds;
+        this.dwellMinutes = dwellMinutes;
+        this.reachedMeters = reachedMeters;
+    }
+    
+    /** Replaces the planned order; stops already reached stay reached. */
+    public void setPlan(List<Waypoint> stops, Waypoint school) {
+        this.stops = List.copyOf(stops);
+        this.school = school;
+    }
+    
+    public void update(LocationFix fix) {
+        if (last != null && fix.recordedAt() <= last.recordedAt()) {
+            return;
+        }
+        markReached(fix);
+        if (last != null) {
+            long elapsedMillis = fix.recordedAt() - last.recordedAt();
+            if (elapsedMillis < MIN_SAMPLE_MILLIS) {
+                return;
+            }
+            double km = GeoUtils.haversineKm(last.latitude(), last.longitude(), fix.latitude(), fix.longitude());
+            double sampleKmh = km / (elapsedMillis / 3_600_000.0);
+            double weight = 1 - Math.exp(-elapsedMillis / 1000.0 / speedTimeConstantSeconds);
+            speedKmh = Double.isNaN(speedKmh) ? sampleKmh : speedKmh + weight * (sampleKmh - speedKmh);
+        }
+        last = fix;
+    }
+    
+    private void markReached(LocationFix fix) {
+        for (Waypoint stop : stops) {
+            if (distanceMeters(fix, stop) <= reachedMeters) {
+                reached.add(stop.id());
+            }
+        }
+        if (school != null && distanceMeters(fix, school) <= reachedMeters) {
+            arrived = true;
+        }
+    }
+    
+    public Estimate estimate() {
+        if (last == null) {
+            return null;
+        }
+        double effectiveKmh = Math.max(Double.isNaN(speedKmh) ? defaultSpeedKmh : speedKmh, minSpeedKmh);
+        double millisPerKm = 3_600_000.0 / effectiveKmh;
+        long dwellMillis = Math.round(dwellMinutes * 60_000);
+        
+        List<StopEstimate> estimates = new ArrayList<>(stops.size());
+        double lat = last.latitude();
+        double lon = last.longitude();
+        double at = last.recordedAt();
+        for (Waypoint stop : stops) {
+            if (arrived || reached.contains(stop.id())) {
+                estimates.add(new StopEstimate(stop.id(), true, null));
+                continue;
+            }
+            at += GeoUtils.haversineKm(lat, lon, stop.lat(), stop.lon()) * millisPerKm;
+            estimates.add(new StopEstimate(stop.id(), false, Math.round(at)));
+            at += dwellMillis;
+            lat = stop.lat();
+            lon = stop.lon();
+        }
+        
+        Long schoolEta = null;
+        if (school != null && !arrived) {
+            schoolEta = Math.round(at + GeoUtils.haversineKm(lat, lon, school.lat(), school.lon()) * millisPerKm);
+        }
+        return new Estimate(last, Double.isNaN(speedKmh) ? null : speedKmh, arrived, estimates, schoolEta);
+    }
+    
+    private static double distanceMeters(LocationFix fix, Waypoint point) {
+        return GeoUtils.haversineKm(fix.latitude(), fix.longitude(), point.lat(), point.lon()) * 1000;
+    }
+    
+    public record Waypoint(long id, double lat, double lon) {
+    }
+    
+    public record StopEstimate(long id, boolean reached, Long etaMillis) {
+    }
+    
+    public record Estimate(LocationFix position, Double speedKmh, boolean arrived,
+                           List<StopEstimate> stops, Long schoolEtaMillis) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.kidscarpool.tracking;
+
+/**
+ * Published when a ride's car first enters a geofence. {@code rideRequestId}, {@code childId} and
+ * {@code requesterId} are only set for pickup stops.
+ */
+public record GeofenceEvent(Type type, long rideId, long driverId, long schoolId, Long rideRequestId, Long childId,
+                            Long requesterId, double latitude, double longitude, long occurredAt) {
+    
+    public enum Type {
+        ARRIVED_AT_SCHOOL, ARRIVING_AT_STOP
+    }
+}
@@ -0,0 +1,4 @@
+package com.kidscarpool.tracking;
+
+public record LocationFix(long rideId, double latitude, double longitude, long recordedAt) {
+}
@@ -0,0 +1,12 @@
+package com.kidscarpool.tracking;
+
+import java.util.List;
+
+/**
+ * Receives fixes as soon as they are accepted, before they reach the database. Called on the
+ * request thread, so implementations must only update in-memory state.
+ */
+public interface LocationListener {
+    
+    void onFixes(long rideId, List<LocationFix> fixes);
+}
@@ -0,0 +1,117 @@
+package com.kidscarpool.tracking;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a sequence
+ * number telling producers whether it is free and the consumer whether it has been published,
+ * so neither side ever blocks the other. {@link #offer} and {@link #offerAll} fail instead of
+ * waiting when full.
+ */
+public class MpscRingBuffer<T> {
+    
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    public boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                // The slot still holds an item from the previous lap: full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Adds every item or none of them. The producer index is advanced past the whole run with a
+     * single CAS, so no other producer can take a slot in between and the batch stays contiguous.
+     */
+    public boolean offerAll(List<? extends T> items) {
+        int count = items.size();
+        if (count == 0) {
+            return true;
+        }
+        if (count > mask + 1) {
+            return false;
+        }
+        long position = tail.get();
+        while (true) {
+            // The consumer frees slots in order, so the last slot of the run being free means they all are
+            long last = position + count - 1;
+            long sequence = sequences.get((int) last & mask);
+            if (sequence == last) {
+                if (tail.compareAndSet(position, position + count)) {
+                    for (int i = 0; i < count; i++) {
+                        int index = (int) (position + i) & mask;
+                        slots.set(index, items.get(i));
+                        sequences.set(index, position + i + 1);
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < last) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Moves up to {@code max} items into {@code sink}. Must only be called from the consumer thread.
+     */
+    public int drainTo(Collection<? super T> sink, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            sink.add(slots.get(index));
+            slots.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+    
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+    
+    public int capacity() {
+        return mask + 1;
+    }
+}
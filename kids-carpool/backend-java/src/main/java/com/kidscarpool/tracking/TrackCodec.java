@@ -0,0 +1,89 @@
+package com.kidscarpool.tracking;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a track. Coordinates are fixed-point at 1e-5 degrees (about 1 m) and
+ * every value is stored as the zigzag varint delta from the previous point, so a typical fix
+ * costs 3 to 6 bytes instead of a 40-byte row.
+ */
+public final class TrackCodec {
+    
+    private static final int VERSION = 1;
+    private static final double SCALE = 1e5;
+    
+    private TrackCodec() {
+    }
+    
+    public static byte[] encode(List<TrackPoint> points) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(points.size() * 6 + 8);
+        out.write(VERSION);
+        writeVarint(out, points.size());
+        
+        long previousLat = 0;
+        long previousLon = 0;
+        long previousTime = 0;
+        for (TrackPoint point : points) {
+            long lat = Math.round(point.latitude() * SCALE);
+            long lon = Math.round(point.longitude() * SCALE);
+            writeVarint(out, zigzag(lat - previousLat));
+            writeVarint(out, zigzag(lon - previousLon));
+            writeVarint(out, zigzag(point.recordedAt() - previousTime));
+            previousLat = lat;
+            previousLon = lon;
+            previousTime = point.recordedAt();
+        }
+        return out.toByteArray();
+    }
+    
+    public static List<TrackPoint> decode(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported track encoding version " + version);
+        }
+        int count = (int) readVarint(in);
+        
+        List<TrackPoint> points = new ArrayList<>(count);
+        long lat = 0;
+        long lon = 0;
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unzigzag(readVarint(in));
+            lon += unzigzag(readVarint(in));
+            time += unzigzag(readVarint(in));
+            points.add(new TrackPoint(lat / SCALE, lon / SCALE, time));
+        }
+        return points;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
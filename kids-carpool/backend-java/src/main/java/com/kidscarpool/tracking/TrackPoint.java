@@ -0,0 +1,4 @@
+package com.kidscarpool.tracking;
+
+public record TrackPoint(double latitude, double longitude, long recordedAt) {
+}
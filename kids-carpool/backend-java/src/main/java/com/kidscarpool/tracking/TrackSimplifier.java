@@ -0,0 +1,79 @@
+package com.kidscarpool.tracking;
+
+import com.kidscarpool.geo.GeoUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Douglas-Peucker simplification of a GPS track. Keeps the first and last point and every point
+ * that lies further than the tolerance from the line between its kept neighbours. Distances use
+ * a local flat projection, which is accurate at the few-kilometre scale of a school run.
+ */
+public final class TrackSimplifier {
+    
+    private TrackSimplifier() {
+    }
+    
+    public static List<TrackPoint> simplify(List<TrackPoint> points, double toleranceMeters) {
+        int n = points.size();
+        if (n <= 2 || toleranceMeters <= 0) {
+            return points;
+        }
+        
+        double metersPerDegreeLat = GeoUtils.KM_PER_DEGREE_LAT * 1000;
+        double metersPerDegreeLon = metersPerDegreeLat * Math.cos(Math.toRadians(points.get(0).latitude()));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = points.get(i).longitude() * metersPerDegreeLon;
+            y[i] = points.get(i).latitude() * metersPerDegreeLat;
+        }
+        
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        
+        // Explicit stack: a long drive would otherwise recurse thousands of levels deep
+        Deque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[]{0, n - 1});
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int first = segment[0];
+            int last = segment[1];
+            
+            int farthest = -1;
+            double farthestDistance = toleranceMeters;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegment(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > farthestDistance) {
+                    farthest = i;
+                    farthestDistance = distance;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                segments.push(new int[]{first, farthest});
+                segments.push(new int[]{farthest, last});
+            }
+        }
+        
+        List<TrackPoint> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+    
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
@@ -0,0 +1,6 @@
+package com.kidscarpool.waitlist;
+
+// Published inside the transaction that changed a ride's queue; seatsAssigned is set when
+// entries were promoted into accepted requests
+public record WaitlistChangedEvent(Long rideId, boolean seatsAssigned) {
+}
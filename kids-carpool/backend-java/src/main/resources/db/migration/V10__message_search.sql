@@ -0,0 +1,33 @@
+-- Full-text index over message content. Contentless, since the text already lives in messages;
+-- owners holds "u<sender> u<receiver>" so a search is restricted to the caller inside the index.
+CREATE VIRTUAL TABLE IF NOT EXISTS messages_fts USING fts5(
+    content,
+    owners,
+    content = '',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+INSERT INTO messages_fts (rowid, content, owners)
+SELECT id, content, 'u' || sender_id || ' u' || receiver_id FROM messages;
+
+CREATE TRIGGER IF NOT EXISTS messages_fts_insert AFTER INSERT ON messages
+BEGIN
+    INSERT INTO messages_fts (rowid, content, owners)
+    VALUES (new.id, new.content, 'u' || new.sender_id || ' u' || new.receiver_id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS messages_fts_delete AFTER DELETE ON messages
+BEGIN
+    INSERT INTO messages_fts (messages_fts, rowid, content, owners)
+    VALUES ('delete', old.id, old.content, 'u' || old.sender_id || ' u' || old.receiver_id);
+END;
+
+-- Hibernate rewrites every column on save, so only reindex when the indexed values really change
+CREATE TRIGGER IF NOT EXISTS messages_fts_update AFTER UPDATE ON messages
+WHEN old.content IS NOT new.content OR old.sender_id <> new.sender_id OR old.receiver_id <> new.receiver_id
+BEGIN
+    INSERT INTO messages_fts (messages_fts, rowid, content, owners)
+    VALUES ('delete', old.id, old.content, 'u' || old.sender_id || ' u' || old.receiver_id);
+    INSERT INTO messages_fts (rowid, content, owners)
+    VALUES (new.id, new.content, 'u' || new.sender_id || ' u' || new.receiver_id);
+END;
@@ -0,0 +1,24 @@
+-- Running rating aggregates per rated user, updated in place on every new rating
+CREATE TABLE IF NOT EXISTS rating_summaries (
+    user_id integer,
+    rating_count integer not null default 0,
+    rating_sum integer not null default 0,
+    stars_1 integer not null default 0,
+    stars_2 integer not null default 0,
+    stars_3 integer not null default 0,
+    stars_4 integer not null default 0,
+    stars_5 integer not null default 0,
+    primary key (user_id)
+);
+
+INSERT INTO rating_summaries (user_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5)
+SELECT rated_id, count(*), sum(rating),
+       sum(rating = 1), sum(rating = 2), sum(rating = 3), sum(rating = 4), sum(rating = 5)
+FROM ratings
+GROUP BY rated_id;
+
+-- Earlier recomputes could lose updates under concurrency, so take the counts from the source
+UPDATE users SET
+    total_ratings = coalesce((SELECT s.rating_count FROM rating_summaries s WHERE s.user_id = users.id), 0),
+    average_rating = coalesce((SELECT 1.0 * s.rating_sum / s.rating_count FROM rating_summaries s
+                               WHERE s.user_id = users.id AND s.rating_count > 0), 0.0);
@@ -0,0 +1,4 @@
+-- Lets the leaderboard rebuild list each school's drivers from the index alone;
+-- it also serves lookups by school_id, so the single-column index goes
+DROP INDEX IF EXISTS idx_rides_school_id;
+CREATE INDEX IF NOT EXISTS idx_rides_school_user ON rides (school_id, user_id);
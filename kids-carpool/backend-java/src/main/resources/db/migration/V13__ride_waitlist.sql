@@ -0,0 +1,21 @@
+-- Parents queued for a full ride, oldest first; the head is promoted when a seat frees up.
+-- Kept out of ride_requests, whose status column only allows the four request states
+CREATE TABLE IF NOT EXISTS ride_waitlist (
+    id integer,
+    ride_id bigint not null,
+    requester_id bigint not null,
+    child_id bigint not null,
+    pickup_address varchar(255) not null,
+    pickup_latitude float,
+    pickup_longitude float,
+    created_at timestamp not null,
+    primary key (id)
+);
+
+-- Queue order per ride, and one place in a ride's queue per child
+CREATE INDEX IF NOT EXISTS idx_ride_waitlist_ride ON ride_waitlist (ride_id, id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_ride_waitlist_ride_child ON ride_waitlist (ride_id, child_id);
+
+-- Promotion creates an accepted request without the driver reviewing it, so a ride only takes
+-- a waitlist once its driver opts in
+ALTER TABLE rides ADD COLUMN waitlist_auto_accept boolean not null default 0;
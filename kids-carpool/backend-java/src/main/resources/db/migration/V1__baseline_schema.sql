@@ -0,0 +1,106 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update); databases created that way are
+-- baselined at this version instead of running it.
+
+CREATE TABLE IF NOT EXISTS children (
+    id integer,
+    age integer not null,
+    created_at timestamp not null,
+    emergency_contact_name varchar(255),
+    emergency_contact_phone varchar(255),
+    grade varchar(255),
+    medical_info TEXT,
+    name varchar(255) not null,
+    school_id bigint,
+    special_needs TEXT,
+    user_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS messages (
+    id integer,
+    content TEXT not null,
+    created_at timestamp not null,
+    is_read boolean,
+    receiver_id bigint not null,
+    sender_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS ratings (
+    id integer,
+    comment TEXT,
+    created_at timestamp not null,
+    rated_id bigint not null,
+    rater_id bigint not null,
+    rating integer not null,
+    ride_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS ride_locations (
+    id integer,
+    created_at timestamp not null,
+    latitude float not null,
+    longitude float not null,
+    ride_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS ride_requests (
+    id integer,
+    child_id bigint not null,
+    created_at timestamp not null,
+    pickup_address varchar(255) not null,
+    requester_id bigint not null,
+    ride_id bigint not null,
+    status varchar(255) not null check (status in ('PENDING','ACCEPTED','REJECTED','CANCELLED')),
+    updated_at timestamp,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS rides (
+    id integer,
+    available_seats integer not null,
+    created_at timestamp not null,
+    dropoff_location varchar(255) not null,
+    notes TEXT,
+    pickup_location varchar(255) not null,
+    ride_date varchar(255) not null,
+    ride_time varchar(255) not null,
+    school_id bigint not null,
+    status varchar(255) not null check (status in ('ACTIVE','COMPLETED','CANCELLED')),
+    total_seats integer not null,
+    updated_at timestamp,
+    user_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS schools (
+    id integer,
+    address varchar(255) not null,
+    city varchar(255) not null,
+    created_at timestamp not null,
+    end_time varchar(255) not null,
+    latitude float not null,
+    longitude float not null,
+    name varchar(255) not null,
+    start_time varchar(255) not null,
+    state varchar(255) not null,
+    zip_code varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id integer,
+    average_rating float,
+    background_check_completed boolean,
+    created_at timestamp not null,
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password_hash varchar(255) not null,
+    phone varchar(255) not null,
+    role varchar(255) not null check (role in ('PARENT','ADMIN')),
+    total_ratings integer,
+    verification_status varchar(255) not null check (verification_status in ('PENDING','VERIFIED','REJECTED')),
+    primary key (id)
+);
@@ -0,0 +1,22 @@
+-- One index per repository access path. SQLite appends the rowid to every index, so a
+-- single-column index on the filter also serves the "ORDER BY id DESC" keyset pages.
+
+CREATE INDEX IF NOT EXISTS idx_children_user_id ON children (user_id);
+CREATE INDEX IF NOT EXISTS idx_children_school_id ON children (school_id);
+
+CREATE INDEX IF NOT EXISTS idx_messages_sender_id ON messages (sender_id);
+CREATE INDEX IF NOT EXISTS idx_messages_receiver_id ON messages (receiver_id);
+
+CREATE INDEX IF NOT EXISTS idx_ratings_rated_id ON ratings (rated_id);
+CREATE INDEX IF NOT EXISTS idx_ratings_rater_id ON ratings (rater_id);
+CREATE INDEX IF NOT EXISTS idx_ratings_ride_id ON ratings (ride_id);
+
+CREATE INDEX IF NOT EXISTS idx_ride_locations_ride_id ON ride_locations (ride_id);
+
+CREATE INDEX IF NOT EXISTS idx_ride_requests_ride_id_status ON ride_requests (ride_id, status);
+CREATE INDEX IF NOT EXISTS idx_ride_requests_requester_id ON ride_requests (requester_id);
+
+CREATE INDEX IF NOT EXISTS idx_rides_user_id ON rides (user_id);
+CREATE INDEX IF NOT EXISTS idx_rides_status ON rides (status);
+CREATE INDEX IF NOT EXISTS idx_rides_school_id ON rides (school_id);
+CREATE INDEX IF NOT EXISTS idx_rides_school_status_date ON rides (school_id, status, ride_date);
@@ -0,0 +1,3 @@
+-- Optional origin coordinates so rides can be found by distance
+ALTER TABLE rides ADD COLUMN pickup_latitude float;
+ALTER TABLE rides ADD COLUMN pickup_longitude float;
@@ -0,0 +1,4 @@
+-- Where a child is picked up from, used by the batch ride matcher
+ALTER TABLE children ADD COLUMN home_address varchar(255);
+ALTER TABLE children ADD COLUMN home_latitude float;
+ALTER TABLE children ADD COLUMN home_longitude float;
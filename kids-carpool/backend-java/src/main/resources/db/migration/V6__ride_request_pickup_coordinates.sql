@@ -0,0 +1,3 @@
+-- Optional pickup coordinates so accepted stops can be put in driving order
+ALTER TABLE ride_requests ADD COLUMN pickup_latitude float;
+ALTER TABLE ride_requests ADD COLUMN pickup_longitude float;
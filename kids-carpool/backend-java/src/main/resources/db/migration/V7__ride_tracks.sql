@@ -0,0 +1,13 @@
+-- One compressed, simplified track per completed ride; its raw ride_locations rows are purged
+CREATE TABLE IF NOT EXISTS ride_tracks (
+    ride_id integer,
+    point_count integer not null,
+    original_point_count integer not null,
+    encoded blob not null,
+    created_at timestamp not null,
+    primary key (ride_id)
+);
+
+-- Tracks are read in time order; this also covers lookups by ride_id alone
+DROP INDEX IF EXISTS idx_ride_locations_ride_id;
+CREATE INDEX IF NOT EXISTS idx_ride_locations_ride_created ON ride_locations (ride_id, created_at);
@@ -0,0 +1,37 @@
+-- One conversation per participant pair, stored with the lower user id first
+CREATE TABLE IF NOT EXISTS conversations (
+    id integer,
+    user_low_id bigint not null,
+    user_high_id bigint not null,
+    last_message_id bigint,
+    last_message_at timestamp,
+    created_at timestamp not null,
+    primary key (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_conversations_pair ON conversations (user_low_id, user_high_id);
+CREATE INDEX IF NOT EXISTS idx_conversations_user_high ON conversations (user_high_id);
+
+ALTER TABLE messages ADD COLUMN conversation_id bigint;
+
+INSERT INTO conversations (user_low_id, user_high_id, created_at)
+SELECT min(sender_id, receiver_id), max(sender_id, receiver_id), min(created_at)
+FROM messages
+GROUP BY min(sender_id, receiver_id), max(sender_id, receiver_id);
+
+UPDATE messages SET conversation_id = (
+    SELECT c.id FROM conversations c
+    WHERE c.user_low_id = min(messages.sender_id, messages.receiver_id)
+      AND c.user_high_id = max(messages.sender_id, messages.receiver_id)
+);
+
+-- Threads are read newest-first by (created_at, id) within a conversation
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_created ON messages (conversation_id, created_at, id);
+
+-- Unread counts per conversation only touch the receiver's unread rows
+CREATE INDEX IF NOT EXISTS idx_messages_unread ON messages (receiver_id, is_read, conversation_id);
+
+UPDATE conversations SET
+    last_message_id = (SELECT max(m.id) FROM messages m WHERE m.conversation_id = conversations.id),
+    last_message_at = (SELECT m.created_at FROM messages m WHERE m.conversation_id = conversations.id
+                       ORDER BY m.created_at DESC, m.id DESC LIMIT 1);
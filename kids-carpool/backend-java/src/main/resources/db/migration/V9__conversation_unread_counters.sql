@@ -0,0 +1,10 @@
+-- Unread messages per participant, kept in step with messages.is_read on send and on read
+ALTER TABLE conversations ADD COLUMN unread_low integer not null default 0;
+ALTER TABLE conversations ADD COLUMN unread_high integer not null default 0;
+
+UPDATE conversations SET
+    unread_low = (SELECT count(*) FROM messages m
+                  WHERE m.conversation_id = conversations.id AND m.receiver_id = conversations.user_low_id AND m.is_read = 0),
+    unread_high = (SELECT count(*) FROM messages m
+                   WHERE m.conversation_id = conversations.id AND m.receiver_id = conversations.user_high_id
+                     AND conversations.user_high_id <> conversations.user_low_id AND m.is_read = 0);
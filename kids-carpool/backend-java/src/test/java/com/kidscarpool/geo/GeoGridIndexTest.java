@@ -0,0 +1,124 @@
+package com.kidscarpool.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares grid queries with a brute-force scan, including across the antimeridian and near the poles
+class GeoGridIndexTest {
+    
+    private static final double CELL = 0.05;
+    
+    @Test
+    void nearestMatchesBruteForceAroundCellEdges() {
+        Random random = new Random(42);
+        for (double[] center : new double[][]{{40.0, -75.0}, {64.9, 25.5}, {-33.87, 151.2}}) {
+            List<double[]> points = scatter(random, center[0], center[1], 0.5, 400);
+            GeoGridIndex<Integer> index = build(points);
+            for (int query = 0; query < 200; query++) {
+                // Queries sit on or just inside cell boundaries, where an early ring cut-off shows up
+                double lat = Math.floor((center[0] + (random.nextDouble() - 0.5) * 0.6) / CELL) * CELL + 1e-9;
+                double lon = Math.floor((center[1] + (random.nextDouble() - 0.5) * 0.6) / CELL) * CELL
+                        + (random.nextBoolean() ? 1e-9 : CELL - 1e-9);
+                assertNearest(index, points, lat, lon, 5, 50);
+            }
+        }
+    }
+    
+    @Test
+    void nearestFindsNeighboursAcrossTheAntimeridian() {
+        List<double[]> points = List.of(
+                new double[]{-17.8, -179.99},
+                new double[]{-17.8, 179.98},
+                new double[]{-17.8, 179.5},
+                new double[]{-17.8, -179.6});
+        GeoGridIndex<Integer> index = build(points);
+        
+        List<GeoGridIndex.Match<Integer>> nearest = index.nearest(-17.8, 179.995, 2, 100);
+        
+        assertEquals(List.of(0, 1), nearest.stream().map(m -> m.entry().value()).sorted().toList());
+        assertNearest(index, points, -17.8, 179.995, 4, 100);
+        assertNearest(index, points, -17.8, -180.0, 3, 100);
+    }
+    
+    @Test
+    void withinRadiusMatchesBruteForceAcrossTheAntimeridianAndPoles() {
+        Random random = new Random(7);
+        for (double[] center : new double[][]{{0.0, 180.0}, {-16.5, -179.9}, {89.9, 10.0}, {-89.95, -120.0}}) {
+            List<double[]> points = scatter(random, center[0], center[1], 1.0, 300);
+            GeoGridIndex<Integer> index = build(points);
+            for (double radiusKm : new double[]{1, 10, 40}) {
+                List<Integer> expected = bruteForce(points, center[0], center[1]).stream()
+                        .filter(m -> m.distanceKm() <= radiusKm)
+                        .map(m -> m.entry().value())
+                        .sorted()
+                        .toList();
+                List<Integer> actual = index.withinRadius(center[0], center[1], radiusKm).stream()
+                        .map(m -> m.entry().value())
+                        .sorted()
+                        .toList();
+                assertEquals(expected, actual, "radius " + radiusKm + " around " + center[0] + "," + center[1]);
+            }
+        }
+    }
+    
+    @Test
+    void movingAnEntryReplacesItsOldCell() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(CELL);
+        index.put(1, 40.0, -75.0, "before");
+        index.put(1, 41.0, -75.0, "after");
+        
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.withinRadius(40.0, -75.0, 5));
+        assertEquals("after", index.withinRadius(41.0, -75.0, 5).get(0).entry().value());
+    }
+    
+    private static void assertNearest(GeoGridIndex<Integer> index, List<double[]> points,
+                                      double lat, double lon, int k, double maxKm) {
+        List<Double> expected = bruteForce(points, lat, lon).stream()
+                .map(GeoGridIndex.Match::distanceKm)
+                .filter(d -> d <= maxKm)
+                .limit(k)
+                .toList();
+        List<Double> actual = index.nearest(lat, lon, k, maxKm).stream()
+                .map(GeoGridIndex.Match::distanceKm)
+                .toList();
+        assertEquals(expected, actual, "nearest " + k + " to " + lat + "," + lon);
+    }
+    
+    private static List<GeoGridIndex.Match<Integer>> bruteForce(List<double[]> points, double lat, double lon) {
+        List<GeoGridIndex.Match<Integer>> matches = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            double[] point = points.get(i);
+            matches.add(new GeoGridIndex.Match<>(new GeoGridIndex.Entry<>(i, point[0], point[1], i),
+                    GeoUtils.haversineKm(lat, lon, point[0], point[1])));
+        }
+        matches.sort(Comparator.comparingDouble(GeoGridIndex.Match::distanceKm));
+        return matches;
+    }
+    
+    private static GeoGridIndex<Integer> build(List<double[]> points) {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL);
+        for (int i = 0; i < points.size(); i++) {
+            index.put(i, points.get(i)[0], points.get(i)[1], i);
+        }
+        return index;
+    }
+    
+    // Points around the center, wrapped into valid longitudes and clamped to valid latitudes
+    private static List<double[]> scatter(Random random, double lat, double lon, double spread, int count) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double pointLat = Math.max(-90, Math.min(90, lat + (random.nextDouble() - 0.5) * 2 * spread));
+            double pointLon = lon + (random.nextDouble() - 0.5) * 2 * spread;
+            pointLon = ((pointLon + 540) % 360) - 180;
+            points.add(new double[]{pointLat, pointLon});
+        }
+        return points;
+    }
+}
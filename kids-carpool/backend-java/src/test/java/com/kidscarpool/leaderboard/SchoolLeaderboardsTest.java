@@ -0,0 +1,113 @@
+package com.kidscarpool.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchoolLeaderboardsTest {
+    
+    private static final long SCHOOL = 100;
+    private static final long OTHER_SCHOOL = 200;
+    
+    // Five imaginary 4-star ratings
+    private static SchoolLeaderboards leaderboards() {
+        return new SchoolLeaderboards(5, 4.0);
+    }
+    
+    @Test
+    void oneFiveStarRatingDoesNotOutrankManyHighRatings() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(1, 1, 5);
+        boards.setStanding(2, 50, 245);
+        boards.addDriver(SCHOOL, 1);
+        boards.addDriver(SCHOOL, 2);
+        
+        assertEquals(List.of(2L, 1L), ranking(boards, SCHOOL, 10));
+        assertEquals((5 + 20) / 6.0, boards.top(SCHOOL, 10).get(1).score(), 1e-12);
+    }
+    
+    @Test
+    void aNewRatingReRanksTheDriverAtEverySchool() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(1, 10, 45);
+        boards.setStanding(2, 10, 42);
+        boards.setStanding(3, 10, 40);
+        boards.addDriver(SCHOOL, 1);
+        boards.addDriver(SCHOOL, 2);
+        boards.addDriver(SCHOOL, 3);
+        boards.addDriver(OTHER_SCHOOL, 3);
+        boards.addDriver(OTHER_SCHOOL, 2);
+        
+        assertEquals(Set.of(SCHOOL, OTHER_SCHOOL), boards.addRating(3, 5));
+        for (int i = 0; i < 9; i++) {
+            boards.addRating(3, 5);
+        }
+        
+        // 3 now has 20 ratings summing 90: (90 + 20) / 25 = 4.4 beats (45 + 20) / 15 = 4.33
+        assertEquals(List.of(3L, 1L, 2L), ranking(boards, SCHOOL, 10));
+        assertEquals(List.of(3L, 2L), ranking(boards, OTHER_SCHOOL, 10));
+        assertEquals(List.of(3L, 1L), ranking(boards, SCHOOL, 2));
+        assertEquals(20, boards.top(SCHOOL, 1).get(0).ratingCount());
+    }
+    
+    @Test
+    void tiesGoToMoreRatingsThenLowerId() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(7, 2, 8);
+        boards.setStanding(5, 2, 8);
+        boards.setStanding(9, 4, 16);
+        for (long driver : new long[]{7, 5, 9}) {
+            boards.addDriver(SCHOOL, driver);
+        }
+        
+        assertEquals(List.of(9L, 5L, 7L), ranking(boards, SCHOOL, 10));
+    }
+    
+    @Test
+    void unratedDriversAreKnownButNotRanked() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(1, 0, 0);
+        
+        assertTrue(boards.hasStanding(1));
+        assertFalse(boards.addDriver(SCHOOL, 1));
+        assertEquals(List.of(), boards.top(SCHOOL, 10));
+        
+        assertEquals(Set.of(SCHOOL), boards.addRating(1, 4));
+        assertEquals(List.of(1L), ranking(boards, SCHOOL, 10));
+    }
+    
+    @Test
+    void ignoresUnknownDriversAndUnchangedTotals() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(1, 3, 12);
+        boards.addDriver(SCHOOL, 1);
+        
+        assertEquals(Set.of(), boards.addRating(99, 5));
+        assertEquals(Set.of(), boards.setStanding(1, 3, 12));
+        assertFalse(boards.addDriver(SCHOOL, 1));
+        assertEquals(List.of(1L), ranking(boards, SCHOOL, 10));
+    }
+    
+    @Test
+    void removingASchoolDropsItsBoard() {
+        SchoolLeaderboards boards = leaderboards();
+        boards.setStanding(1, 3, 12);
+        boards.addDriver(SCHOOL, 1);
+        boards.addDriver(OTHER_SCHOOL, 1);
+        
+        boards.removeSchool(SCHOOL);
+        
+        assertEquals(Set.of(OTHER_SCHOOL), boards.schools());
+        assertEquals(Set.of(OTHER_SCHOOL), boards.addRating(1, 5));
+        assertEquals(List.of(), boards.top(SCHOOL, 10));
+    }
+    
+    private static List<Long> ranking(SchoolLeaderboards boards, long schoolId, int k) {
+        return boards.top(schoolId, k).stream().map(SchoolLeaderboards.Entry::driverId).toList();
+    }
+}
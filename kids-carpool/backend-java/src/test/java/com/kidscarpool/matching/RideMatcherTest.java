@@ -0,0 +1,118 @@
+package com.kidscarpool.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideMatcherTest {
+    
+    // The school; cars and homes are placed in degrees around it
+    private static final double DEST_LAT = 0.0;
+    private static final double DEST_LON = 0.0;
+    
+    @Test
+    void neverSeatsMoreRidersThanACarHas() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            List<RideMatcher.Passenger> passengers = new ArrayList<>();
+            for (long i = 0; i < 300; i++) {
+                passengers.add(new RideMatcher.Passenger(i, jitter(random), jitter(random)));
+            }
+            List<RideMatcher.Vehicle> vehicles = new ArrayList<>();
+            for (long i = 0; i < 60; i++) {
+                vehicles.add(new RideMatcher.Vehicle(1000 + i, jitter(random), jitter(random), 1 + random.nextInt(4)));
+            }
+            
+            RideMatcher.Result result = new RideMatcher(8, 10).match(DEST_LAT, DEST_LON, passengers, vehicles);
+            
+            Map<Long, Integer> seated = new HashMap<>();
+            Set<Long> placed = new HashSet<>();
+            double total = 0;
+            for (RideMatcher.Assignment assignment : result.assignments()) {
+                seated.merge(assignment.vehicleId(), 1, Integer::sum);
+                assertTrue(placed.add(assignment.passengerId()), "passenger seated twice");
+                assertTrue(assignment.detourKm() <= 10, "detour over the limit");
+                total += assignment.detourKm();
+            }
+            for (RideMatcher.Vehicle vehicle : vehicles) {
+                assertTrue(seated.getOrDefault(vehicle.id(), 0) <= vehicle.seats(), "car " + vehicle.id() + " overbooked");
+            }
+            for (Long unassigned : result.unassignedPassengerIds()) {
+                assertTrue(placed.add(unassigned), "passenger both seated and unassigned");
+            }
+            assertEquals(passengers.size(), placed.size());
+            assertEquals(total, result.totalDetourKm(), 1e-9);
+        }
+    }
+    
+    @Test
+    void repairMovesASeatedRiderToMakeRoom() {
+        // X sits on car A's straight line to school, so greedy seats X in A first. Y can only
+        // reach A within the detour limit, so the repair pass has to move X over to B.
+        RideMatcher.Vehicle carA = new RideMatcher.Vehicle(1, 0.1, 0.0, 1);
+        RideMatcher.Vehicle carB = new RideMatcher.Vehicle(2, 0.0, 0.1, 1);
+        RideMatcher.Passenger x = new RideMatcher.Passenger(10, 0.05, 0.0);
+        RideMatcher.Passenger y = new RideMatcher.Passenger(20, 0.1, 0.02);
+        
+        RideMatcher.Result result = new RideMatcher(8, 10).match(DEST_LAT, DEST_LON, List.of(x, y), List.of(carA, carB));
+        
+        assertEquals(List.of(), result.unassignedPassengerIds());
+        assertEquals(Map.of(10L, 2L, 20L, 1L), vehicleByPassenger(result));
+    }
+    
+    @Test
+    void leavesRidersUnmatchedWhenSeatsRunOut() {
+        RideMatcher.Vehicle car = new RideMatcher.Vehicle(1, 0.05, 0.0, 2);
+        List<RideMatcher.Passenger> passengers = List.of(
+                new RideMatcher.Passenger(10, 0.04, 0.0),
+                new RideMatcher.Passenger(11, 0.03, 0.0),
+                new RideMatcher.Passenger(12, 0.04, 0.01));
+        
+        RideMatcher.Result result = new RideMatcher(8, 10).match(DEST_LAT, DEST_LON, passengers, List.of(car));
+        
+        // The two on the car's path are cheapest; the third waits for another car
+        assertEquals(Set.of(10L, 11L), vehicleByPassenger(result).keySet());
+        assertEquals(List.of(12L), result.unassignedPassengerIds());
+    }
+    
+    @Test
+    void leavesRidersUnmatchedWhenEveryCarIsTooFarOut() {
+        RideMatcher.Vehicle north = new RideMatcher.Vehicle(1, 0.2, 0.0, 4);
+        RideMatcher.Passenger south = new RideMatcher.Passenger(10, -0.2, 0.0);
+        
+        RideMatcher.Result result = new RideMatcher(8, 10).match(DEST_LAT, DEST_LON, List.of(south), List.of(north));
+        
+        assertEquals(List.of(), result.assignments());
+        assertEquals(List.of(10L), result.unassignedPassengerIds());
+        assertEquals(0.0, result.totalDetourKm());
+    }
+    
+    @Test
+    void handlesNoCarsAndNoRiders() {
+        RideMatcher matcher = new RideMatcher(8, 10);
+        RideMatcher.Passenger rider = new RideMatcher.Passenger(10, 0.01, 0.0);
+        
+        assertEquals(List.of(10L), matcher.match(DEST_LAT, DEST_LON, List.of(rider), List.of()).unassignedPassengerIds());
+        assertEquals(List.of(), matcher.match(DEST_LAT, DEST_LON, List.of(),
+                List.of(new RideMatcher.Vehicle(1, 0.1, 0.0, 3))).assignments());
+    }
+    
+    private static Map<Long, Long> vehicleByPassenger(RideMatcher.Result result) {
+        Map<Long, Long> byPassenger = new HashMap<>();
+        result.assignments().forEach(a -> byPassenger.put(a.passengerId(), a.vehicleId()));
+        return byPassenger;
+    }
+    
+    private static double jitter(Random random) {
+        return (random.nextDouble() - 0.5) * 0.2;
+    }
+}
@@ -0,0 +1,61 @@
+package com.kidscarpool.matching;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Matching for one school run with a few thousand children spread over a ~20 km area.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.kidscarpool.matching.RideMatchingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RideMatchingBenchmark {
+    
+    private static final double SCHOOL_LAT = 37.7749;
+    private static final double SCHOOL_LON = -122.4194;
+    
+    @Param({"500", "2000"})
+    public int children;
+    
+    private List<RideMatcher.Passenger> passengers;
+    private List<RideMatcher.Vehicle> vehicles;
+    private RideMatcher matcher;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        passengers = new ArrayList<>();
+        for (long i = 0; i < children; i++) {
+            passengers.add(new RideMatcher.Passenger(i, jitter(SCHOOL_LAT, random), jitter(SCHOOL_LON, random)));
+        }
+        vehicles = new ArrayList<>();
+        for (long i = 0; i < children / 3; i++) {
+            vehicles.add(new RideMatcher.Vehicle(i, jitter(SCHOOL_LAT, random), jitter(SCHOOL_LON, random), 1 + random.nextInt(4)));
+        }
+        matcher = new RideMatcher(8, 10);
+    }
+    
+    @Benchmark
+    public RideMatcher.Result match() {
+        return matcher.match(SCHOOL_LAT, SCHOOL_LON, passengers, vehicles);
+    }
+    
+    private static double jitter(double center, Random random) {
+        return center + (random.nextDouble() - 0.5) * 0.2;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RideMatchingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
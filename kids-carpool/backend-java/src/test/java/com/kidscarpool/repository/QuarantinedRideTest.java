@@ -0,0 +1,34 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A ride listed in ride_datetime_quarantine is skipped by reads instead of failing them in the converters
+class QuarantinedRideTest extends SqliteSpringBootTest {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void quarantinedRidesAreLeftOutOfReads() {
+        Long schoolId = createSchool().getId();
+        Ride readable = rideRepository.save(newRide(1L, schoolId, 4));
+        Ride legacy = rideRepository.save(newRide(1L, schoolId, 4));
+        jdbcTemplate.update("UPDATE rides SET ride_time = 'after school' WHERE id = ?", legacy.getId());
+        jdbcTemplate.update("INSERT INTO ride_datetime_quarantine (ride_id, ride_date, ride_time) " +
+                "SELECT id, ride_date, ride_time FROM rides WHERE id = ?", legacy.getId());
+        
+        assertEquals(List.of(readable.getId()), rideRepository.findBySchoolId(schoolId).stream().map(Ride::getId).toList());
+        assertTrue(rideRepository.findById(legacy.getId()).isEmpty());
+        assertEquals("ACTIVE", jdbcTemplate.queryForObject(
+                "SELECT status FROM rides WHERE id = ?", String.class, legacy.getId()));
+    }
+}
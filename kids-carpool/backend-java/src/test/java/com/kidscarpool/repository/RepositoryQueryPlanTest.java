@@ -0,0 +1,164 @@
+package com.kidscarpool.repository;
+
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every declared repository query method against the migrated schema and fails if SQLite
+// plans a full scan (of a table or of a whole index) for any statement it issues.
+class RepositoryQueryPlanTest extends SqliteSpringBootTest {
+    
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN ");
+    
+    // Scans that are expected, as exact plan steps per finder; any other scan in these finders still fails
+    private static final Map<String, Set<String>> INTENTIONAL_SCANS = Map.of(
+            // FTS5 answers MATCH from its own index, which SQLite reports as a virtual table scan
+            "MessageRepository.search", Set.of("SCAN messages_fts VIRTUAL TABLE INDEX 0:M2"),
+            // The leaderboard rebuild reads every (school, driver) pair once at startup
+            "RideRepository.streamDriverSchools", Set.of("SCAN r1_0 USING COVERING INDEX idx_rides_school_user"));
+    
+    @Autowired
+    private ApplicationContext context;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void everyQueryMethodUsesAnIndex() {
+        List<String> failures = new ArrayList<>();
+        int checked = 0;
+        
+        for (Object bean : context.getBeansOfType(Repository.class).values()) {
+            for (Class<?> repositoryInterface : bean.getClass().getInterfaces()) {
+                if (!repositoryInterface.getPackageName().equals(getClass().getPackageName())) {
+                    continue;
+                }
+                for (Method finder : repositoryInterface.getDeclaredMethods()) {
+                    String name = repositoryInterface.getSimpleName() + "." + finder.getName();
+                    if (finder.isDefault()) {
+                        continue;
+                    }
+                    
+                    SqlCapture.clear();
+                    invokeAndRollBack(bean, finder);
+                    assertFalse(SqlCapture.statements().isEmpty(), name + " issued no SQL");
+                    
+                    for (String sql : SqlCapture.statements()) {
+                        for (String step : queryPlan(sql)) {
+                            if (FULL_SCAN.matcher(step).find()
+                                    && !INTENTIONAL_SCANS.getOrDefault(name, Set.of()).contains(step)) {
+                                failures.add(name + ": " + step + " <- " + sql);
+                            }
+                        }
+                    }
+                    checked++;
+                }
+            }
+        }
+        
+        assertTrue(checked > 0, "no repository query methods found");
+        assertTrue(failures.isEmpty(), "full table scans:\n" + String.join("\n", failures));
+    }
+    
+    // Modifying queries need a transaction; roll it back so every method sees the same tables
+    private void invokeAndRollBack(Object repository, Method method) {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            try {
+                Object result = method.invoke(repository, sampleArguments(method));
+                // Streamed results only run their query once consumed
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.forEach(row -> { });
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(method.getName() + " failed", e);
+            }
+        });
+    }
+    
+    private List<String> queryPlan(String sql) {
+        return jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql, (rs, row) -> rs.getString("detail"));
+    }
+    
+    private static Object[] sampleArguments(Method method) {
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] instanceof ParameterizedType collection) {
+                Object element = sampleValue((Class<?>) collection.getActualTypeArguments()[0]);
+                args[i] = List.of(element, element);
+            } else {
+                args[i] = sampleValue((Class<?>) types[i]);
+            }
+        }
+        return args;
+    }
+    
+    private static Object sampleValue(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Double.class || type == double.class) {
+            return 1.0;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == String.class) {
+            return "x";
+        }
+        if (type == Limit.class) {
+            return Limit.of(10);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == LocalTime.class) {
+            return LocalTime.NOON;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+}
@@ -0,0 +1,65 @@
+package com.kidscarpool.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// V3 normalises the legacy free-form ride dates and times it can read and lists the rest
+// in ride_datetime_quarantine without touching the ride or its status
+class RideDateTimeMigrationTest {
+    
+    @Test
+    void normalisesLegacyValuesAndQuarantinesTheRest() throws IOException {
+        Path db = Files.createTempFile("ride-datetime-migration", ".db");
+        db.toFile().deleteOnExit();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + db, true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        
+        flyway(dataSource, "2").migrate();
+        insertRide(jdbc, 1, "2024-09-03", "7:5");
+        insertRide(jdbc, 2, "9/3/2024", "7:30 PM");
+        insertRide(jdbc, 3, "2024/09/03", "07:30:00");
+        insertRide(jdbc, 4, "next tuesday", "07:30");
+        insertRide(jdbc, 5, "2024-09-03", "after school");
+        flyway(dataSource, "latest").migrate();
+        
+        assertEquals(Map.of("ride_date", "2024-09-03", "ride_time", "07:05"), dateTime(jdbc, 1));
+        assertEquals(Map.of("ride_date", "2024-09-03", "ride_time", "19:30"), dateTime(jdbc, 2));
+        assertEquals(Map.of("ride_date", "2024-09-03", "ride_time", "07:30"), dateTime(jdbc, 3));
+        
+        // Unreadable rows keep their text and stay active
+        assertEquals(Map.of("ride_date", "next tuesday", "ride_time", "07:30"), dateTime(jdbc, 4));
+        assertEquals(Map.of("ride_date", "2024-09-03", "ride_time", "after school"), dateTime(jdbc, 5));
+        assertEquals(List.of("ACTIVE"), jdbc.queryForList("SELECT DISTINCT status FROM rides", String.class));
+        assertEquals(List.of(4L, 5L), jdbc.queryForList(
+                "SELECT ride_id FROM ride_datetime_quarantine ORDER BY ride_id", Long.class));
+        dataSource.destroy();
+    }
+    
+    private static Flyway flyway(SingleConnectionDataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+    
+    private static void insertRide(JdbcTemplate jdbc, long id, String date, String time) {
+        jdbc.update("INSERT INTO rides (id, available_seats, created_at, dropoff_location, pickup_location, ride_date, " +
+                "ride_time, school_id, status, total_seats, user_id) " +
+                "VALUES (?, 4, CURRENT_TIMESTAMP, 'School', 'Home', ?, ?, 1, 'ACTIVE', 4, 1)", id, date, time);
+    }
+    
+    private static Map<String, Object> dateTime(JdbcTemplate jdbc, long id) {
+        return jdbc.queryForMap("SELECT ride_date, ride_time FROM rides WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,59 @@
+package com.kidscarpool.routing;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Planning one car's pickups, from a small car up to a full van. Up to 7 stops are solved
+// exactly; larger routes use the parallel local search.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.kidscarpool.routing.RoutePlannerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePlannerBenchmark {
+    
+    private static final RoutePlanner.Point SCHOOL = new RoutePlanner.Point(37.7749, -122.4194);
+    
+    @Param({"2", "4", "6", "7", "8", "10", "12", "15"})
+    public int stops;
+    
+    private RoutePlanner planner;
+    private RoutePlanner.Point origin;
+    private List<RoutePlanner.Stop> pickups;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        origin = new RoutePlanner.Point(jitter(SCHOOL.lat(), random), jitter(SCHOOL.lon(), random));
+        pickups = new ArrayList<>();
+        for (long i = 0; i < stops; i++) {
+            pickups.add(new RoutePlanner.Stop(i, jitter(SCHOOL.lat(), random), jitter(SCHOOL.lon(), random)));
+        }
+        planner = new RoutePlanner(30, 2, 45, Duration.ofMillis(200), 8);
+    }
+    
+    @Benchmark
+    public RoutePlanner.Plan plan() {
+        return planner.plan(origin, pickups, SCHOOL, 7 * 60 + 30, 8 * 60 + 30.0);
+    }
+    
+    private static double jitter(double center, Random random) {
+        return center + (random.nextDouble() - 0.5) * 0.1;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoutePlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.kidscarpool.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutePlannerTest {
+    
+    private static final RoutePlanner.Point SCHOOL = new RoutePlanner.Point(37.7749, -122.4194);
+    
+    @Test
+    void exactSearchFindsTheShortestOrder() {
+        // Stops on a line north of the school; the only sensible order is farthest first
+        RoutePlanner planner = new RoutePlanner(30, 2, 45, Duration.ofSeconds(5), 4);
+        List<RoutePlanner.Stop> stops = List.of(
+                new RoutePlanner.Stop(1, 37.79, -122.4194),
+                new RoutePlanner.Stop(2, 37.81, -122.4194),
+                new RoutePlanner.Stop(3, 37.80, -122.4194));
+        
+        RoutePlanner.Plan plan = planner.plan(new RoutePlanner.Point(37.82, -122.4194), stops, SCHOOL, 7 * 60, null);
+        
+        assertTrue(plan.exhaustive());
+        assertEquals(List.of(2L, 3L, 1L), plan.stops().stream().map(s -> s.stop().id()).toList());
+    }
+    
+    @Test
+    void exhaustiveOnlyWhenTheSearchFinishedInBudget() {
+        List<RoutePlanner.Stop> stops = randomStops(7);
+        RoutePlanner.Point origin = new RoutePlanner.Point(37.70, -122.50);
+        
+        RoutePlanner.Plan unhurried = new RoutePlanner(30, 2, 45, Duration.ofSeconds(5), 4)
+                .plan(origin, stops, SCHOOL, 7 * 60, 8 * 60.0);
+        RoutePlanner.Plan outOfTime = new RoutePlanner(30, 2, 45, Duration.ZERO, 4)
+                .plan(origin, stops, SCHOOL, 7 * 60, 8 * 60.0);
+        
+        assertTrue(unhurried.exhaustive());
+        assertFalse(outOfTime.exhaustive());
+        // Even out of time every stop is still routed
+        assertEquals(7, outOfTime.stops().size());
+    }
+    
+    @Test
+    void localSearchStopsAtTheBudget() {
+        List<RoutePlanner.Stop> stops = randomStops(60);
+        RoutePlanner planner = new RoutePlanner(30, 2, 45, Duration.ofMillis(50), 4);
+        
+        long started = System.nanoTime();
+        RoutePlanner.Plan plan = planner.plan(null, stops, SCHOOL, 7 * 60, 8 * 60.0);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        
+        assertFalse(plan.exhaustive());
+        assertEquals(60, plan.stops().size());
+        // One improvement sweep may finish after the budget, but not many
+        assertTrue(elapsedMs < 1000, "took " + elapsedMs + " ms");
+    }
+    
+    private static List<RoutePlanner.Stop> randomStops(int count) {
+        Random random = new Random(3);
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            stops.add(new RoutePlanner.Stop(i, SCHOOL.lat() + (random.nextDouble() - 0.5) * 0.1,
+                    SCHOOL.lon() + (random.nextDouble() - 0.5) * 0.1));
+        }
+        return stops;
+    }
+}
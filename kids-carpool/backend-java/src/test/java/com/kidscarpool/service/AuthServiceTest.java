@@ -0,0 +1,84 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.LoginRequest;
+import com.kidscarpool.dto.RegisterRequest;
+import com.kidscarpool.security.TooManyAttemptsException;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The hashing pool only hashes, and guessing one account from many addresses is still limited
+class AuthServiceTest extends SqliteSpringBootTest {
+    
+    private static final String PASSWORD = "correct horse";
+    
+    @Autowired
+    private AuthService authService;
+    
+    @DynamicPropertySource
+    static void limits(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+        registry.add("auth.rate-limit.account-max-failures", () -> "2");
+        registry.add("auth.rate-limit.account-any-address-max-failures", () -> "3");
+    }
+    
+    @Test
+    void userLookupsAndSavesStayOffTheHashingPool() {
+        SqlCapture.clear();
+        authService.register(registerRequest("pool@example.com"), "10.0.0.1").join();
+        assertNotNull(authService.login(loginRequest("pool@example.com", PASSWORD), "10.0.0.1").join().getAccess_token());
+        assertLoginFails("pool@example.com", "wrong password", "10.0.0.1", BadCredentialsException.class);
+        assertLoginFails("nobody@example.com", PASSWORD, "10.0.0.1", BadCredentialsException.class);
+        
+        assertEquals(List.of(), SqlCapture.statementsOnThreadsNamed("password-hash-"));
+    }
+    
+    @Test
+    void failuresFromManyAddressesLockTheAccountAtTheHigherLimit() {
+        authService.register(registerRequest("spread@example.com"), "10.0.1.1").join();
+        
+        assertLoginFails("spread@example.com", "guess", "10.0.1.1", BadCredentialsException.class);
+        assertLoginFails("spread@example.com", "guess", "10.0.1.1", BadCredentialsException.class);
+        assertThrows(TooManyAttemptsException.class,
+                () -> authService.login(loginRequest("spread@example.com", PASSWORD), "10.0.1.1"));
+        
+        // A new address starts its own count, but the third failure overall locks the account everywhere
+        assertLoginFails("spread@example.com", "guess", "10.0.1.2", BadCredentialsException.class);
+        assertThrows(TooManyAttemptsException.class,
+                () -> authService.login(loginRequest("spread@example.com", PASSWORD), "10.0.1.3"));
+    }
+    
+    private void assertLoginFails(String email, String password, String ip, Class<? extends Throwable> cause) {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> authService.login(loginRequest(email, password), ip).join());
+        assertInstanceOf(cause, e.getCause());
+    }
+    
+    private static RegisterRequest registerRequest(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword(PASSWORD);
+        request.setFull_name("Test Parent");
+        request.setPhone("555-0100");
+        return request;
+    }
+    
+    private static LoginRequest loginRequest(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(email);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.EtaResponse;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import com.kidscarpool.tracking.LocationFix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Fixes and invalidations run on the ingest path, so the plan behind an ETA is loaded elsewhere
+class EtaServiceTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    private static final long PARENT_ID = 2L;
+    
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private RideRequestService rideRequestService;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    private long fixTime = System.currentTimeMillis();
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void fixesOnlySwapInAPlanLoadedOffTheIngestPath() throws InterruptedException {
+        Ride ride = newRide(DRIVER_ID, createSchool().getId(), 4);
+        ride.setPickupLatitude(37.82);
+        ride.setPickupLongitude(-122.4194);
+        ride.setAvailableSeats(3);
+        ride = rideRepository.save(ride);
+        addRequest(ride.getId(), 37.80, RideRequest.RequestStatus.ACCEPTED);
+        Long pending = addRequest(ride.getId(), 37.79, RideRequest.RequestStatus.PENDING);
+        
+        SqlCapture.clear();
+        awaitStops(ride.getId(), 1);
+        assertEquals(List.of(), SqlCapture.statementsOn(Thread.currentThread()));
+        
+        rideRequestService.updateRequestStatus(pending, "accepted", DRIVER_ID);
+        SqlCapture.clear();
+        EtaResponse replanned = awaitStops(ride.getId(), 2);
+        assertEquals(List.of(), SqlCapture.statementsOn(Thread.currentThread()));
+        assertNotNull(replanned.getSchool_eta());
+    }
+    
+    // Keeps reporting fixes until an ETA with the expected stop count is visible to the parent
+    private EtaResponse awaitStops(Long rideId, int stops) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            fixTime += 1000;
+            etaService.onFixes(rideId, List.of(new LocationFix(rideId, 37.83, -122.4194, fixTime)));
+            try {
+                EtaResponse eta = etaService.getEta(rideId, PARENT_ID);
+                if (eta.getStops().size() == stops) {
+                    return eta;
+                }
+            } catch (RuntimeException notYet) {
+                // no plan swapped in yet
+            }
+            Thread.sleep(25);
+        }
+        throw new AssertionError("no ETA with " + stops + " stops");
+    }
+    
+    private Long addRequest(Long rideId, double lat, RideRequest.RequestStatus status) {
+        RideRequest request = new RideRequest();
+        request.setRideId(rideId);
+        request.setRequesterId(PARENT_ID);
+        request.setChildId(1L);
+        request.setPickupAddress("Stop");
+        request.setPickupLatitude(lat);
+        request.setPickupLongitude(-122.4194);
+        request.setStatus(status);
+        return rideRequestRepository.save(request).getId();
+    }
+}
@@ -0,0 +1,125 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import com.kidscarpool.tracking.GeofenceEvent;
+import com.kidscarpool.tracking.LocationFix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Fences are loaded off the ingest path, and the school fence only fires once the car has left
+// the school and approached every pickup
+@RecordApplicationEvents
+class GeofenceServiceTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    
+    // The school from createSchool()
+    private static final double SCHOOL_LAT = 37.7749;
+    private static final double LON = -122.4194;
+    
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    private long fixTime = System.currentTimeMillis();
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void schoolArrivalWaitsForEveryPickupAndForTheCarToLeave() throws InterruptedException {
+        Ride ride = rideRepository.save(newRide(DRIVER_ID, createSchool().getId(), 4));
+        // About 100 m from the school, so the car starts inside its approach circle
+        Long nearSchool = addAccepted(ride.getId(), SCHOOL_LAT + 0.0009);
+        Long north = addAccepted(ride.getId(), 37.80);
+        Long south = addAccepted(ride.getId(), 37.76);
+        
+        SqlCapture.clear();
+        awaitStopEvent(ride.getId(), SCHOOL_LAT, nearSchool);
+        assertEquals(0, schoolArrivals());
+        
+        report(ride.getId(), 37.80);
+        report(ride.getId(), SCHOOL_LAT);
+        assertEquals(0, schoolArrivals(), "the south pickup was skipped");
+        
+        report(ride.getId(), 37.76);
+        report(ride.getId(), SCHOOL_LAT);
+        assertEquals(1, schoolArrivals());
+        assertEquals(List.of(nearSchool, north, south), stopEvents());
+        assertEquals(List.of(), SqlCapture.statementsOn(Thread.currentThread()));
+    }
+    
+    @Test
+    void invalidateAddsFencesForNewlyAcceptedStops() throws InterruptedException {
+        Ride ride = rideRepository.save(newRide(DRIVER_ID, createSchool().getId(), 4));
+        Long first = addAccepted(ride.getId(), 37.80);
+        awaitStopEvent(ride.getId(), 37.80, first);
+        
+        Long added = addAccepted(ride.getId(), 37.79);
+        SqlCapture.clear();
+        geofenceService.invalidate(ride.getId());
+        awaitStopEvent(ride.getId(), 37.79, added);
+        assertEquals(List.of(), SqlCapture.statementsOn(Thread.currentThread()));
+    }
+    
+    // Reports the position until the stop's event fires; the first fixes only queue the fence load
+    private void awaitStopEvent(Long rideId, double lat, Long rideRequestId) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            report(rideId, lat);
+            if (stopEvents().contains(rideRequestId)) {
+                return;
+            }
+            Thread.sleep(25);
+        }
+        throw new AssertionError("no stop event for request " + rideRequestId);
+    }
+    
+    private void report(Long rideId, double lat) {
+        fixTime += 1000;
+        geofenceService.onFixes(rideId, List.of(new LocationFix(rideId, lat, LON, fixTime)));
+    }
+    
+    private long schoolArrivals() {
+        return events.stream(GeofenceEvent.class)
+                .filter(event -> event.type() == GeofenceEvent.Type.ARRIVED_AT_SCHOOL)
+                .count();
+    }
+    
+    private List<Long> stopEvents() {
+        return events.stream(GeofenceEvent.class)
+                .filter(event -> event.type() == GeofenceEvent.Type.ARRIVING_AT_STOP)
+                .map(GeofenceEvent::rideRequestId)
+                .toList();
+    }
+    
+    private Long addAccepted(Long rideId, double lat) {
+        RideRequest request = new RideRequest();
+        request.setRideId(rideId);
+        request.setRequesterId(2L);
+        request.setChildId(1L);
+        request.setPickupAddress("Stop");
+        request.setPickupLatitude(lat);
+        request.setPickupLongitude(LON);
+        request.setStatus(RideRequest.RequestStatus.ACCEPTED);
+        return rideRequestRepository.save(request).getId();
+    }
+}
@@ -0,0 +1,61 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.LocationFixRequest;
+import com.kidscarpool.security.ServiceOverloadedException;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// With the writer held off, a batch that does not fit is refused whole and nothing of it is buffered
+class LocationIngestionBackpressureTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @DynamicPropertySource
+    static void smallBuffer(DynamicPropertyRegistry registry) {
+        registry.add("tracking.buffer-capacity", () -> "8");
+        registry.add("tracking.batch-size", () -> "1000");
+        registry.add("tracking.flush-interval-ms", () -> "3600000");
+    }
+    
+    @Test
+    void refusesTheWholeBatchWhenItDoesNotFit() {
+        Long rideId = createRide(DRIVER_ID, 4).getId();
+        
+        assertEquals(6, locationIngestionService.ingest(rideId, DRIVER_ID, fixes(6)));
+        assertThrows(ServiceOverloadedException.class,
+                () -> locationIngestionService.ingest(rideId, DRIVER_ID, fixes(3)));
+        
+        assertEquals(6.0, meterRegistry.get("tracking.buffer.size").gauge().value());
+        assertEquals(6.0, meterRegistry.get("tracking.fixes.accepted").counter().count());
+        assertEquals(3.0, meterRegistry.get("tracking.fixes.rejected").counter().count());
+        // What is left still fits exactly
+        assertEquals(2, locationIngestionService.ingest(rideId, DRIVER_ID, fixes(2)));
+    }
+    
+    private static List<LocationFixRequest> fixes(int count) {
+        List<LocationFixRequest> fixes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocationFixRequest fix = new LocationFixRequest();
+            fix.setLatitude(37.77 + i * 0.001);
+            fix.setLongitude(-122.42);
+            fixes.add(fix);
+        }
+        return fixes;
+    }
+}
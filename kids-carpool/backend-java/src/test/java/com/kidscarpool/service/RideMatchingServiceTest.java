@@ -0,0 +1,74 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.MatchingResponse;
+import com.kidscarpool.dto.RideMatchResponse;
+import com.kidscarpool.dto.RideRequestResponse;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A child seated on a ride that can't take matches (no pickup coordinates) is still booked
+class RideMatchingServiceTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    
+    @Autowired
+    private RideMatchingService rideMatchingService;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Test
+    void childSeatedOnARideWithoutCoordinatesIsNotMatchedAgain() {
+        Long schoolId = createSchool().getId();
+        Ride unlocated = rideRepository.save(newRide(DRIVER_ID, schoolId, 4));
+        Ride located = newRide(DRIVER_ID + 1, schoolId, 4);
+        located.setPickupLatitude(37.80);
+        located.setPickupLongitude(-122.4194);
+        located = rideRepository.save(located);
+        
+        Child seated = createChild(schoolId, 37.79);
+        Child free = createChild(schoolId, 37.795);
+        RideRequest seat = new RideRequest();
+        seat.setRideId(unlocated.getId());
+        seat.setRequesterId(seated.getUserId());
+        seat.setChildId(seated.getId());
+        seat.setPickupAddress("Home");
+        seat.setStatus(RideRequest.RequestStatus.ACCEPTED);
+        rideRequestRepository.save(seat);
+        
+        String today = LocalDate.now().toString();
+        MatchingResponse suggested = rideMatchingService.suggestMatches(schoolId, today);
+        assertEquals(List.of(free.getId()), suggested.getMatches().stream().map(RideMatchResponse::getChild_id).toList());
+        assertEquals(List.of(), suggested.getUnmatched_child_ids());
+        
+        List<RideRequestResponse> applied = rideMatchingService.applyMatches(schoolId, today);
+        assertEquals(1, applied.size());
+        assertEquals(free.getId(), applied.get(0).getChild_id());
+        assertEquals(located.getId(), applied.get(0).getRide_id());
+    }
+    
+    private Child createChild(Long schoolId, double homeLatitude) {
+        Child child = new Child();
+        child.setName("Child");
+        child.setAge(8);
+        child.setSchoolId(schoolId);
+        child.setUserId(100L);
+        child.setHomeLatitude(homeLatitude);
+        child.setHomeLongitude(-122.4194);
+        return childRepository.save(child);
+    }
+}
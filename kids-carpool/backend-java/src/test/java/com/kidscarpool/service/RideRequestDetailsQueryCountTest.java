@@ -0,0 +1,108 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.RideRequestDetailResponse;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.User;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.UserRepository;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The enriched request list must not look up children or parents row by row
+class RideRequestDetailsQueryCountTest extends SqliteSpringBootTest {
+    
+    @Autowired
+    private RideRequestService rideRequestService;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void statementCountDoesNotGrowWithRequests() {
+        User driver = createUser("driver@example.com", "Driver");
+        Ride ride = createRide(driver.getId(), 4);
+        
+        addRequest(ride.getId(), 0);
+        int statementsForOne = countStatements(ride.getId(), driver.getId(), 1);
+        
+        for (int i = 1; i < 20; i++) {
+            addRequest(ride.getId(), i);
+        }
+        int statementsForTwenty = countStatements(ride.getId(), driver.getId(), 20);
+        
+        assertEquals(statementsForOne, statementsForTwenty);
+        assertEquals(2, statementsForTwenty, "ride ownership check plus one joined query");
+    }
+    
+    @Test
+    void detailsCarryChildAndRequester() {
+        User driver = createUser("owner@example.com", "Owner");
+        Ride ride = createRide(driver.getId(), 4);
+        addRequest(ride.getId(), 99);
+        
+        RideRequestDetailResponse detail = rideRequestService.getRideRequestDetails(ride.getId(), driver.getId()).get(0);
+        
+        assertEquals("Child 99", detail.getChild_name());
+        assertEquals(8, detail.getChild_age());
+        assertEquals("3", detail.getChild_grade());
+        assertEquals("Parent 99", detail.getRequester_name());
+        assertEquals("Stop 99", detail.getPickup_address());
+        assertEquals("pending", detail.getStatus());
+    }
+    
+    private int countStatements(Long rideId, Long driverId, int expectedRows) {
+        SqlCapture.clear();
+        List<RideRequestDetailResponse> details = rideRequestService.getRideRequestDetails(rideId, driverId);
+        assertEquals(expectedRows, details.size());
+        return SqlCapture.statements().size();
+    }
+    
+    private User createUser(String email, String name) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("x");
+        user.setFullName(name);
+        user.setPhone("555-0100");
+        return userRepository.save(user);
+    }
+    
+    private void addRequest(Long rideId, int i) {
+        User parent = createUser("parent" + i + "-" + rideId + "@example.com", "Parent " + i);
+        
+        Child child = new Child();
+        child.setName("Child " + i);
+        child.setAge(8);
+        child.setGrade("3");
+        child.setUserId(parent.getId());
+        child = childRepository.save(child);
+        
+        RideRequest request = new RideRequest();
+        request.setRideId(rideId);
+        request.setRequesterId(parent.getId());
+        request.setChildId(child.getId());
+        request.setPickupAddress("Stop " + i);
+        rideRequestRepository.save(request);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ride-level updates must leave the seat columns to the conditional seat queries
+class RideStatusUpdateTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    
+    @Autowired
+    private RideService rideService;
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void statusAndWaitlistFlagUpdatesDoNotWriteSeats() {
+        Ride ride = createRide(DRIVER_ID, 4);
+        
+        SqlCapture.clear();
+        rideService.updateWaitlistAutoAccept(ride.getId(), true, DRIVER_ID);
+        assertEquals("completed", rideService.updateRideStatus(ride.getId(), "completed", DRIVER_ID).getStatus());
+        
+        List<String> rideUpdates = SqlCapture.statements().stream()
+                .filter(sql -> sql.startsWith("update rides"))
+                .toList();
+        assertEquals(2, rideUpdates.size(), rideUpdates.toString());
+        assertTrue(rideUpdates.stream().noneMatch(sql -> sql.contains("available_seats") || sql.contains("total_seats")),
+                rideUpdates.toString());
+    }
+}
@@ -0,0 +1,76 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.RouteResponse;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.support.SqlCapture;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// A cached route is served after the ownership check alone, and a changed accepted set replans it
+class RouteCacheQueryCountTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    
+    @Autowired
+    private RoutePlanningService routePlanningService;
+    
+    @Autowired
+    private RideRequestService rideRequestService;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @DynamicPropertySource
+    static void captureSql(DynamicPropertyRegistry registry) {
+        SqlCapture.register(registry);
+    }
+    
+    @Test
+    void cacheHitOnlyLoadsTheRide() {
+        Ride ride = createRide();
+        addRequest(ride.getId(), 37.79, RideRequest.RequestStatus.ACCEPTED);
+        Long pending = addRequest(ride.getId(), 37.80, RideRequest.RequestStatus.PENDING);
+        
+        RouteResponse first = routePlanningService.getRoute(ride.getId(), DRIVER_ID);
+        SqlCapture.clear();
+        RouteResponse second = routePlanningService.getRoute(ride.getId(), DRIVER_ID);
+        
+        assertSame(first, second);
+        assertEquals(1, SqlCapture.statements().size(), "ride ownership check only: " + SqlCapture.statements());
+        
+        rideRequestService.updateRequestStatus(pending, "accepted", DRIVER_ID);
+        assertEquals(2, routePlanningService.getRoute(ride.getId(), DRIVER_ID).getStops().size());
+    }
+    
+    private Ride createRide() {
+        Ride ride = newRide(DRIVER_ID, createSchool().getId(), 4);
+        ride.setRideTime(LocalTime.of(7, 45));
+        ride.setPickupLatitude(37.82);
+        ride.setPickupLongitude(-122.4194);
+        // One seat is already taken by the accepted request added below
+        ride.setAvailableSeats(3);
+        return rideRepository.save(ride);
+    }
+    
+    private Long addRequest(Long rideId, double lat, RideRequest.RequestStatus status) {
+        RideRequest request = new RideRequest();
+        request.setRideId(rideId);
+        request.setRequesterId(2L);
+        request.setChildId(1L);
+        request.setPickupAddress("Stop");
+        request.setPickupLatitude(lat);
+        request.setPickupLongitude(-122.4194);
+        request.setStatus(status);
+        return rideRequestRepository.save(request).getId();
+    }
+}
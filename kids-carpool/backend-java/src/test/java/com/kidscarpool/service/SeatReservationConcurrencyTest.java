@@ -0,0 +1,356 @@
+package com.kidscarpool.service;
+
+import com.kidscarpool.dto.RideRequestRequest;
+import com.kidscarpool.dto.StatusUpdateRequest;
+import com.kidscarpool.model.Child;
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.RideRequest;
+import com.kidscarpool.model.WaitlistEntry;
+import com.kidscarpool.repository.ChildRepository;
+import com.kidscarpool.repository.RideRequestRepository;
+import com.kidscarpool.repository.WaitlistEntryRepository;
+import com.kidscarpool.support.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatReservationConcurrencyTest extends SqliteSpringBootTest {
+    
+    private static final long DRIVER_ID = 1L;
+    private static final int TOTAL_SEATS = 4;
+    private static final int REQUESTS = 24;
+    private static final int THREADS = 16;
+    private static final int WAITLISTED = 8;
+    
+    @Autowired
+    private RideRequestService rideRequestService;
+    
+    @Autowired
+    private RideService rideService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+    
+    @Autowired
+    private ChildRepository childRepository;
+    
+    @Autowired
+    private RideRequestRepository rideRequestRepository;
+    
+    @Test
+    void concurrentAcceptsNeverOverbook() throws Exception {
+        Ride ride = createRide();
+        List<Long> requestIds = createRequests(ride.getId());
+        
+        runConcurrently(requestIds, id -> rideRequestService.updateRequestStatus(id, "accepted", DRIVER_ID));
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertEquals(0, rideRepository.findById(ride.getId()).orElseThrow().getAvailableSeats());
+    }
+    
+    @Test
+    void mixedAcceptRejectAndCancelKeepSeatCountConsistent() throws Exception {
+        Ride ride = createRide();
+        List<Long> requestIds = createRequests(ride.getId());
+        
+        for (int round = 0; round < 5; round++) {
+            runConcurrently(requestIds, id -> {
+                switch (ThreadLocalRandom.current().nextInt(4)) {
+                    case 0 -> rideRequestService.updateRequestStatus(id, "rejected", DRIVER_ID);
+                    case 1 -> rideRequestService.updateRequestStatus(id, "pending", DRIVER_ID);
+                    case 2 -> rideRequestService.cancelRequest(id, requesterOf(id));
+                    default -> rideRequestService.updateRequestStatus(id, "accepted", DRIVER_ID);
+                }
+            });
+            assertSeatsMatchAcceptedRequests(ride.getId());
+        }
+    }
+    
+    @Test
+    void bulkAndSingleUpdatesKeepSeatCountConsistent() throws Exception {
+        Ride ride = createRide();
+        List<Long> requestIds = createRequests(ride.getId());
+        
+        for (int round = 0; round < 5; round++) {
+            runConcurrently(requestIds, id -> {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    rideRequestService.updateRequestStatus(id, randomStatus(), DRIVER_ID);
+                } else {
+                    List<StatusUpdateRequest> updates = new ArrayList<>();
+                    for (int i = 0; i < 6; i++) {
+                        Long other = requestIds.get(ThreadLocalRandom.current().nextInt(requestIds.size()));
+                        updates.add(statusUpdate(i == 0 ? id : other, randomStatus()));
+                    }
+                    rideRequestService.updateRequestStatuses(updates, DRIVER_ID);
+                }
+            });
+            assertSeatsMatchAcceptedRequests(ride.getId());
+        }
+    }
+    
+    @Test
+    void singleRejectAndCancelPromoteTheWaitlistInOrder() {
+        Ride ride = createRide();
+        List<Long> seated = fillSeats(ride.getId());
+        List<Long> queue = joinWaitlist(ride.getId());
+        
+        rideRequestService.updateRequestStatus(seated.get(0), "rejected", DRIVER_ID);
+        rideRequestService.cancelRequest(seated.get(1), requesterOf(seated.get(1)));
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertPromotedInOrder(ride.getId(), queue, 2);
+    }
+    
+    @Test
+    void bulkUpdatePromotesOneHeadPerFreedSeat() {
+        Ride ride = createRide();
+        List<Long> seated = fillSeats(ride.getId());
+        List<Long> queue = joinWaitlist(ride.getId());
+        
+        rideRequestService.updateRequestStatuses(List.of(
+                statusUpdate(seated.get(0), "rejected"),
+                statusUpdate(seated.get(2), "pending"),
+                statusUpdate(seated.get(3), "rejected")), DRIVER_ID);
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertPromotedInOrder(ride.getId(), queue, 3);
+    }
+    
+    @Test
+    void addingSeatsPromotesTheWaitlist() {
+        Ride ride = createRide();
+        fillSeats(ride.getId());
+        List<Long> queue = joinWaitlist(ride.getId());
+        
+        rideService.updateTotalSeats(ride.getId(), TOTAL_SEATS + 3, DRIVER_ID);
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertPromotedInOrder(ride.getId(), queue, 3);
+    }
+    
+    @Test
+    void concurrentReleasesPromoteTheWaitlistInOrder() throws Exception {
+        Ride ride = createRide();
+        List<Long> seated = fillSeats(ride.getId());
+        List<Long> queue = joinWaitlist(ride.getId());
+        
+        runConcurrently(seated, id -> {
+            switch (ThreadLocalRandom.current().nextInt(3)) {
+                case 0 -> rideRequestService.updateRequestStatus(id, "rejected", DRIVER_ID);
+                case 1 -> rideRequestService.cancelRequest(id, requesterOf(id));
+                default -> rideRequestService.updateRequestStatuses(List.of(statusUpdate(id, "rejected")), DRIVER_ID);
+            }
+        });
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        // Each seat released by a committed update went to the next head
+        long released = rideRequestRepository.findAllById(seated).stream()
+                .filter(r -> r.getStatus() != RideRequest.RequestStatus.ACCEPTED)
+                .count();
+        assertTrue(released > 0, "no release went through");
+        assertPromotedInOrder(ride.getId(), queue, (int) released);
+    }
+    
+    @Test
+    void childWithAnOpenRequestIsNeitherQueuedNorPromoted() {
+        Ride ride = createRide();
+        List<Long> seated = fillSeats(ride.getId());
+        List<Long> queue = joinWaitlist(ride.getId());
+        
+        // A seated child cannot also queue for the same ride
+        RideRequest seat = rideRequestRepository.findById(seated.get(0)).orElseThrow();
+        assertThrows(RuntimeException.class, () -> waitlistService.join(
+                waitlistRequest(ride.getId(), seat.getChildId()), seat.getRequesterId()));
+        
+        // The head got a pending request some other way; its queue place is dropped, not promoted
+        RideRequest pending = new RideRequest();
+        pending.setRideId(ride.getId());
+        pending.setRequesterId(100L);
+        pending.setChildId(queue.get(0));
+        pending.setPickupAddress("Elsewhere");
+        rideRequestRepository.save(pending);
+        
+        rideRequestService.updateRequestStatus(seated.get(0), "rejected", DRIVER_ID);
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertEquals(RideRequest.RequestStatus.PENDING, rideRequestRepository.findById(pending.getId()).orElseThrow().getStatus());
+        assertPromotedInOrder(ride.getId(), queue.subList(1, queue.size()), 1);
+    }
+    
+    @Test
+    void onlyRidesThatOptedInTakeAWaitlist() {
+        Ride ride = createRide();
+        ride.setWaitlistAutoAccept(false);
+        rideRepository.save(ride);
+        fillSeats(ride.getId());
+        
+        Long childId = createChild(1L);
+        assertThrows(RuntimeException.class, () -> waitlistService.join(waitlistRequest(ride.getId(), childId), 1L));
+        // ...and a full ride that takes no waitlist does not point parents at one
+        RuntimeException full = assertThrows(RuntimeException.class,
+                () -> rideRequestService.createRideRequest(waitlistRequest(ride.getId(), childId), 1L));
+        assertEquals("No seats available", full.getMessage());
+    }
+    
+    @Test
+    void aParentCanOnlyQueueTheirOwnChild() {
+        Ride ride = createRide();
+        fillSeats(ride.getId());
+        Long otherParentsChild = createChild(500L);
+        
+        assertThrows(RuntimeException.class, () -> waitlistService.join(waitlistRequest(ride.getId(), otherParentsChild), 501L));
+        assertTrue(waitlistRepository.findByRideIdOrderByIdAsc(ride.getId()).isEmpty());
+    }
+    
+    @Test
+    void turningAutoAcceptOffClosesTheWaitlistAndKeepsTheSeats() {
+        Ride ride = createRide();
+        fillSeats(ride.getId());
+        joinWaitlist(ride.getId());
+        
+        rideService.updateWaitlistAutoAccept(ride.getId(), false, DRIVER_ID);
+        
+        assertSeatsMatchAcceptedRequests(ride.getId());
+        assertFalse(rideRepository.findById(ride.getId()).orElseThrow().getWaitlistAutoAccept());
+        assertTrue(waitlistRepository.findByRideIdOrderByIdAsc(ride.getId()).isEmpty());
+    }
+    
+    private static String randomStatus() {
+        return switch (ThreadLocalRandom.current().nextInt(3)) {
+            case 0 -> "rejected";
+            case 1 -> "pending";
+            default -> "accepted";
+        };
+    }
+    
+    private static StatusUpdateRequest statusUpdate(Long id, String status) {
+        StatusUpdateRequest update = new StatusUpdateRequest();
+        update.setId(id);
+        update.setStatus(status);
+        return update;
+    }
+    
+    private Ride createRide() {
+        Ride ride = newRide(DRIVER_ID, 1L, TOTAL_SEATS);
+        ride.setWaitlistAutoAccept(true);
+        return rideRepository.save(ride);
+    }
+    
+    // Accepts the first TOTAL_SEATS requests, leaving the ride full
+    private List<Long> fillSeats(Long rideId) {
+        List<Long> seated = createRequests(rideId).subList(0, TOTAL_SEATS);
+        for (Long id : seated) {
+            rideRequestService.updateRequestStatus(id, "accepted", DRIVER_ID);
+        }
+        return seated;
+    }
+    
+    // Returns the queued child ids, head first
+    private List<Long> joinWaitlist(Long rideId) {
+        List<Long> children = new ArrayList<>();
+        for (int i = 0; i < WAITLISTED; i++) {
+            Long childId = createChild(400L + i);
+            waitlistService.join(waitlistRequest(rideId, childId), 400L + i);
+            children.add(childId);
+        }
+        return children;
+    }
+    
+    private static RideRequestRequest waitlistRequest(Long rideId, Long childId) {
+        RideRequestRequest request = new RideRequestRequest();
+        request.setRide_id(rideId);
+        request.setChild_id(childId);
+        request.setPickup_address("Queue stop " + childId);
+        return request;
+    }
+    
+    // The first {@code count} queued children hold accepted requests created in queue order; the rest still wait
+    private void assertPromotedInOrder(Long rideId, List<Long> queue, int count) {
+        List<Long> promoted = rideRequestRepository.findByRideId(rideId).stream()
+                .filter(r -> queue.contains(r.getChildId()) && r.getStatus() == RideRequest.RequestStatus.ACCEPTED)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .map(RideRequest::getChildId)
+                .toList();
+        List<Long> waiting = waitlistRepository.findByRideIdOrderByIdAsc(rideId).stream()
+                .map(WaitlistEntry::getChildId)
+                .toList();
+        
+        assertEquals(queue.subList(0, count), promoted);
+        assertEquals(queue.subList(count, queue.size()), waiting);
+    }
+    
+    private List<Long> createRequests(Long rideId) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            RideRequest request = new RideRequest();
+            request.setRideId(rideId);
+            request.setRequesterId(100L + i);
+            request.setChildId(createChild(100L + i));
+            request.setPickupAddress("Stop " + i);
+            ids.add(rideRequestRepository.save(request).getId());
+        }
+        return ids;
+    }
+    
+    private Long createChild(long parentId) {
+        Child child = new Child();
+        child.setName("Child of " + parentId);
+        child.setAge(8);
+        child.setUserId(parentId);
+        return childRepository.save(child).getId();
+    }
+    
+    private Long requesterOf(Long requestId) {
+        return rideRequestRepository.findById(requestId).orElseThrow().getRequesterId();
+    }
+    
+    private void assertSeatsMatchAcceptedRequests(Long rideId) {
+        Ride ride = rideRepository.findById(rideId).orElseThrow();
+        long accepted = rideRequestRepository.findByRideId(rideId).stream()
+                .filter(r -> r.getStatus() == RideRequest.RequestStatus.ACCEPTED)
+                .count();
+        assertTrue(ride.getAvailableSeats() >= 0, "negative seat count");
+        assertEquals(ride.getTotalSeats() - accepted, ride.getAvailableSeats().longValue());
+    }
+    
+    // Every request id is hit from several threads at once; rejected operations are expected
+    private void runConcurrently(List<Long> requestIds, RequestAction action) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int copy = 0; copy < 3; copy++) {
+            for (Long id : requestIds) {
+                pool.submit(() -> {
+                    start.await();
+                    try {
+                        action.apply(id);
+                    } catch (RuntimeException expected) {
+                        // full ride, concurrent update or busy database
+                    }
+                    return null;
+                });
+            }
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+    }
+    
+    private interface RequestAction {
+        void apply(Long requestId);
+    }
+}
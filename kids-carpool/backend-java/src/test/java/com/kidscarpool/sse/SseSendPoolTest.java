@@ -0,0 +1,67 @@
+package com.kidscarpool.sse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseSendPoolTest {
+    
+    @Test
+    void aStalledSendIsReportedAndStopsHoldingTheOnlySender() throws InterruptedException {
+        SseSendPool pool = new SseSendPool("test", 1, 2, 100);
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        AtomicInteger stalls = new AtomicInteger();
+        try {
+            pool.execute(() -> await(unblock), stalls::incrementAndGet);
+            pool.execute(delivered::countDown, stalls::incrementAndGet);
+            
+            assertTrue(delivered.await(5, TimeUnit.SECONDS), "the second send waited behind the stalled one");
+            assertEquals(1, stalls.get());
+            assertEquals(1, pool.stalledCount());
+            
+            unblock.countDown();
+            for (int attempt = 0; attempt < 200 && pool.stalledCount() > 0; attempt++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, pool.stalledCount());
+            assertEquals(1, stalls.get());
+        } finally {
+            unblock.countDown();
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void replacementsStopAtTheCapButStallsAreStillReported() throws InterruptedException {
+        SseSendPool pool = new SseSendPool("test", 1, 1, 100);
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(2);
+        try {
+            pool.execute(() -> await(unblock), stalled::countDown);
+            for (int attempt = 0; attempt < 200 && pool.stalledCount() == 0; attempt++) {
+                Thread.sleep(10);
+            }
+            pool.execute(() -> await(unblock), stalled::countDown);
+            
+            assertTrue(stalled.await(5, TimeUnit.SECONDS));
+            assertEquals(1, pool.stalledCount());
+        } finally {
+            unblock.countDown();
+            pool.shutdown();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.kidscarpool.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Records every statement Hibernate prepares; register it from a test's @DynamicPropertySource
+public class SqlCapture implements StatementInspector {
+    
+    private static final List<Statement> statements = new CopyOnWriteArrayList<>();
+    
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                SqlCapture.class::getName);
+    }
+    
+    public static List<String> statements() {
+        return statements.stream().map(Statement::sql).toList();
+    }
+    
+    // Statements prepared by the given thread, to check that a path stays off the database
+    public static List<String> statementsOn(Thread thread) {
+        return statements.stream()
+                .filter(statement -> statement.thread() == thread)
+                .map(Statement::sql)
+                .toList();
+    }
+    
+    // Statements prepared by any thread whose name starts with the prefix, e.g. a worker pool's
+    public static List<String> statementsOnThreadsNamed(String prefix) {
+        return statements.stream()
+                .filter(statement -> statement.thread().getName().startsWith(prefix))
+                .map(Statement::sql)
+                .toList();
+    }
+    
+    public static void clear() {
+        statements.clear();
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        statements.add(new Statement(Thread.currentThread(), sql));
+        return sql;
+    }
+    
+    private record Statement(Thread thread, String sql) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.kidscarpool.support;
+
+import com.kidscarpool.model.Ride;
+import com.kidscarpool.model.School;
+import com.kidscarpool.repository.RideRepository;
+import com.kidscarpool.repository.SchoolRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Boots the application against its own migrated SQLite file. Subclasses that register no extra
+// properties share one context and one database, so fixtures use fresh rows rather than fixed ids.
+@SpringBootTest
+public abstract class SqliteSpringBootTest {
+    
+    @Autowired
+    protected SchoolRepository schoolRepository;
+    
+    @Autowired
+    protected RideRepository rideRepository;
+    
+    @DynamicPropertySource
+    static void sqliteDatabase(DynamicPropertyRegistry registry) throws IOException {
+        Path db = Files.createTempFile("kids-carpool-test", ".db");
+        db.toFile().deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + db);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+    
+    protected School createSchool() {
+        School school = new School();
+        school.setName("School");
+        school.setAddress("1 Main St");
+        school.setCity("City");
+        school.setState("CA");
+        school.setZipCode("94000");
+        school.setLatitude(37.7749);
+        school.setLongitude(-122.4194);
+        school.setStartTime("08:30");
+        school.setEndTime("15:00");
+        return schoolRepository.save(school);
+    }
+    
+    // An ACTIVE, empty ride for today, not yet saved so callers can adjust it
+    protected static Ride newRide(long driverId, long schoolId, int seats) {
+        Ride ride = new Ride();
+        ride.setUserId(driverId);
+        ride.setSchoolId(schoolId);
+        ride.setRideDate(LocalDate.now());
+        ride.setRideTime(LocalTime.of(7, 30));
+        ride.setPickupLocation("Home");
+        ride.setDropoffLocation("School");
+        ride.setAvailableSeats(seats);
+        ride.setTotalSeats(seats);
+        return ride;
+    }
+    
+    protected Ride createRide(long driverId, int seats) {
+        return rideRepository.save(newRide(driverId, 1L, seats));
+    }
+}
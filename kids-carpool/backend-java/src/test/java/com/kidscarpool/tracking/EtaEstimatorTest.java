@@ -0,0 +1,132 @@
+package com.kidscarpool.tracking;
+
+import com.kidscarpool.geo.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EtaEstimatorTest {
+    
+    private static final long RIDE_ID = 1;
+    private static final long T0 = 1_760_000_000_000L;
+    private static final double LON = -75.0;
+    
+    // 30 km/h default, 5 km/h floor, 20 s time constant, 1 minute dwell, 50 m to count as reached
+    private static EtaEstimator estimator() {
+        return new EtaEstimator(30, 5, 20, 1, 50);
+    }
+    
+    @Test
+    void noEstimateBeforeTheFirstFix() {
+        assertNull(estimator().estimate());
+    }
+    
+    @Test
+    void usesTheDefaultSpeedUntilThereIsASample() {
+        EtaEstimator eta = estimator();
+        EtaEstimator.Waypoint school = new EtaEstimator.Waypoint(0, 40.01, LON);
+        eta.setPlan(List.of(), school);
+        
+        eta.update(fix(40.0, 0));
+        EtaEstimator.Estimate estimate = eta.estimate();
+        
+        assertNull(estimate.speedKmh());
+        assertEquals(T0 + Math.round(km(40.0, 40.01) / 30 * 3_600_000), estimate.schoolEtaMillis());
+    }
+    
+    @Test
+    void smoothsSpeedByElapsedTime() {
+        EtaEstimator eta = estimator();
+        eta.update(fix(40.0, 0));
+        eta.update(fix(40.001, 10_000));
+        double first = km(40.0, 40.001) / (10 / 3600.0);
+        
+        // The first sample is taken as is
+        assertEquals(first, eta.estimate().speedKmh(), 1e-9);
+        
+        eta.update(fix(40.003, 20_000));
+        double second = km(40.001, 40.003) / (10 / 3600.0);
+        double weight = 1 - Math.exp(-10.0 / 20);
+        
+        assertEquals(first + weight * (second - first), eta.estimate().speedKmh(), 1e-9);
+        
+        // A long gap weighs its sample almost fully
+        eta.update(fix(40.004, 320_000));
+        double slow = km(40.003, 40.004) / (300 / 3600.0);
+        assertEquals(slow, eta.estimate().speedKmh(), 0.01);
+    }
+    
+    @Test
+    void ignoresBurstsAndOutOfOrderFixesForSpeed() {
+        EtaEstimator eta = estimator();
+        eta.update(fix(40.0, 0));
+        eta.update(fix(40.001, 10_000));
+        double speed = eta.estimate().speedKmh();
+        
+        // 500 ms later and 1 km further: a GPS jump, not a speed
+        eta.update(fix(40.01, 10_500));
+        eta.update(fix(39.9, 5_000));
+        
+        assertEquals(speed, eta.estimate().speedKmh(), 1e-9);
+        assertEquals(T0 + 10_000, eta.estimate().position().recordedAt());
+    }
+    
+    @Test
+    void neverEstimatesBelowTheMinimumSpeed() {
+        EtaEstimator eta = estimator();
+        eta.setPlan(List.of(), new EtaEstimator.Waypoint(0, 40.01, LON));
+        eta.update(fix(40.0, 0));
+        eta.update(fix(40.0, 60_000));
+        
+        EtaEstimator.Estimate estimate = eta.estimate();
+        
+        assertEquals(0.0, estimate.speedKmh());
+        assertEquals(T0 + 60_000 + Math.round(km(40.0, 40.01) / 5 * 3_600_000), estimate.schoolEtaMillis());
+    }
+    
+    @Test
+    void skipsReachedStopsAndAddsDwellForTheRest() {
+        EtaEstimator eta = estimator();
+        EtaEstimator.Waypoint first = new EtaEstimator.Waypoint(1, 40.0, LON);
+        EtaEstimator.Waypoint second = new EtaEstimator.Waypoint(2, 40.01, LON);
+        EtaEstimator.Waypoint school = new EtaEstimator.Waypoint(0, 40.02, LON);
+        eta.setPlan(List.of(first, second), school);
+        
+        eta.update(fix(40.0001, 0));
+        EtaEstimator.Estimate estimate = eta.estimate();
+        
+        double millisPerKm = 3_600_000.0 / 30;
+        double atSecond = T0 + km(40.0001, 40.01) * millisPerKm;
+        assertEquals(List.of(
+                new EtaEstimator.StopEstimate(1, true, null),
+                new EtaEstimator.StopEstimate(2, false, Math.round(atSecond))), estimate.stops());
+        assertEquals(Math.round(atSecond + 60_000 + km(40.01, 40.02) * millisPerKm), estimate.schoolEtaMillis());
+        assertFalse(estimate.arrived());
+    }
+    
+    @Test
+    void arrivingAtSchoolMarksEveryStopReached() {
+        EtaEstimator eta = estimator();
+        eta.setPlan(List.of(new EtaEstimator.Waypoint(1, 40.0, LON)), new EtaEstimator.Waypoint(0, 40.02, LON));
+        
+        eta.update(fix(40.02, 0));
+        EtaEstimator.Estimate estimate = eta.estimate();
+        
+        assertTrue(estimate.arrived());
+        assertTrue(estimate.stops().get(0).reached());
+        assertNull(estimate.schoolEtaMillis());
+    }
+    
+    private static LocationFix fix(double lat, long offsetMillis) {
+        return new LocationFix(RIDE_ID, lat, LON, T0 + offsetMillis);
+    }
+    
+    private static double km(double fromLat, double toLat) {
+        return GeoUtils.haversineKm(fromLat, LON, toLat, LON);
+    }
+}
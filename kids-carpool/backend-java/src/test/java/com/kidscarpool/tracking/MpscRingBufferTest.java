@@ -0,0 +1,125 @@
+package com.kidscarpool.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+    
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(4, new MpscRingBuffer<Integer>(3).capacity());
+    }
+    
+    @Test
+    void offerFailsWhenFullAndDrainsInOrderAcrossLaps() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int lap = 0; lap < 5; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertFalse(buffer.offer(-1));
+            assertEquals(4, buffer.size());
+            assertEquals(3, buffer.drainTo(drained, 3));
+            assertEquals(1, buffer.drainTo(drained, 10));
+            assertEquals(0, buffer.size());
+        }
+        for (int i = 0; i < next; i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+    
+    @Test
+    void offerAllTakesEveryItemOrNone() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        
+        assertTrue(buffer.offerAll(List.of(1, 2, 3, 4, 5)));
+        assertFalse(buffer.offerAll(List.of(6, 7, 8, 9)));
+        assertEquals(5, buffer.size());
+        assertTrue(buffer.offerAll(List.of(6, 7, 8)));
+        assertFalse(buffer.offerAll(List.of(9)));
+        assertTrue(buffer.offerAll(List.of()));
+        assertFalse(new MpscRingBuffer<Integer>(4).offerAll(List.of(1, 2, 3, 4, 5)));
+        
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained, 2);
+        // Two slots free again, and the run wraps around the end of the array
+        assertTrue(buffer.offerAll(List.of(9, 10)));
+        buffer.drainTo(drained, 100);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), drained);
+    }
+    
+    @Test
+    void concurrentBatchesStayWholeAndContiguous() throws Exception {
+        int producers = 8;
+        int batchesPerProducer = 2000;
+        int batchSize = 5;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producerResults = new ArrayList<>();
+        
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            producerResults.add(pool.submit(() -> {
+                start.await();
+                for (int b = 0; b < batchesPerProducer; b++) {
+                    List<long[]> batch = new ArrayList<>();
+                    for (int i = 0; i < batchSize; i++) {
+                        batch.add(new long[]{producer, b, i});
+                    }
+                    while (!buffer.offerAll(batch)) {
+                        // Full: give the consumer a turn rather than spinning against it
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        start.countDown();
+        List<long[]> drained = new ArrayList<>();
+        long expected = (long) producers * batchesPerProducer * batchSize;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (drained.size() < expected && System.nanoTime() < deadline) {
+            if (buffer.drainTo(drained, 16) == 0) {
+                Thread.yield();
+            }
+        }
+        pool.shutdown();
+        for (Future<?> result : producerResults) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        
+        assertEquals(expected, drained.size());
+        Map<Long, Long> lastBatch = new HashMap<>();
+        for (int at = 0; at < drained.size(); at += batchSize) {
+            long producer = drained.get(at)[0];
+            long batch = drained.get(at)[1];
+            for (int i = 0; i < batchSize; i++) {
+                long[] item = drained.get(at + i);
+                assertEquals(producer, item[0], "batch interleaved with another producer");
+                assertEquals(batch, item[1], "batch interleaved with another batch");
+                assertEquals(i, item[2], "batch out of order");
+            }
+            assertEquals(lastBatch.getOrDefault(producer, -1L) + 1, batch, "producer's batches out of order");
+            lastBatch.put(producer, batch);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.kidscarpool.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackCodecTest {
+    
+    // Half a fixed-point step, plus room for the division back to degrees
+    private static final double PRECISION = 0.5e-5 + 1e-12;
+    
+    @Test
+    void roundTripsWithNegativeDeltas() {
+        // South-west across the equator and the prime meridian, with one fix arriving out of order
+        List<TrackPoint> points = List.of(
+                new TrackPoint(0.0004, 0.0003, 1_760_000_000_000L),
+                new TrackPoint(0.00001, -0.00002, 1_760_000_005_000L),
+                new TrackPoint(-0.12345, -0.54321, 1_760_000_002_500L),
+                new TrackPoint(-89.99999, -179.99999, 1_760_000_010_000L),
+                new TrackPoint(89.99999, 179.99999, 1_760_000_011_000L));
+        
+        assertRoundTrips(points);
+    }
+    
+    @Test
+    void roundTripsALongRandomDrive() {
+        Random random = new Random(5);
+        List<TrackPoint> points = new ArrayList<>();
+        double lat = 40.0;
+        double lon = -75.0;
+        long time = 1_760_000_000_000L;
+        for (int i = 0; i < 5000; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.001;
+            lon += (random.nextDouble() - 0.5) * 0.001;
+            time += 1000 + random.nextInt(4000);
+            points.add(new TrackPoint(lat, lon, time));
+        }
+        
+        byte[] encoded = assertRoundTrips(points);
+        
+        assertTrue(encoded.length < points.size() * 8, "encoded " + encoded.length + " bytes");
+    }
+    
+    @Test
+    void roundTripsAnEmptyTrack() {
+        assertEquals(List.of(), TrackCodec.decode(TrackCodec.encode(List.of())));
+    }
+    
+    @Test
+    void rejectsAnUnknownVersion() {
+        byte[] encoded = TrackCodec.encode(List.of(new TrackPoint(40.0, -75.0, 1_760_000_000_000L)));
+        encoded[0] = 2;
+        
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> TrackCodec.decode(encoded));
+        assertEquals("Unsupported track encoding version 2", error.getMessage());
+    }
+    
+    private static byte[] assertRoundTrips(List<TrackPoint> points) {
+        byte[] encoded = TrackCodec.encode(points);
+        List<TrackPoint> decoded = TrackCodec.decode(encoded);
+        
+        assertEquals(points.size(), decoded.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.get(i).latitude(), decoded.get(i).latitude(), PRECISION, "latitude " + i);
+            assertEquals(points.get(i).longitude(), decoded.get(i).longitude(), PRECISION, "longitude " + i);
+            assertEquals(points.get(i).recordedAt(), decoded.get(i).recordedAt(), "time " + i);
+        }
+        return encoded;
+    }
+}
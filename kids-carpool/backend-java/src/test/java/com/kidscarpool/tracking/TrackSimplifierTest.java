@@ -0,0 +1,93 @@
+package com.kidscarpool.tracking;
+
+import com.kidscarpool.geo.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackSimplifierTest {
+    
+    private static final double METERS_PER_DEGREE_LAT = GeoUtils.KM_PER_DEGREE_LAT * 1000;
+    
+    @Test
+    void keepsACornerOnlyWhenItIsOutsideTheTolerance() {
+        // About 850 m east along a parallel, with the middle fix 20 m north of the line
+        TrackPoint start = new TrackPoint(40.0, -75.0, 0);
+        TrackPoint corner = new TrackPoint(40.0 + 20 / METERS_PER_DEGREE_LAT, -74.995, 1000);
+        TrackPoint end = new TrackPoint(40.0, -74.99, 2000);
+        List<TrackPoint> track = List.of(start, corner, end);
+        
+        assertEquals(track, TrackSimplifier.simplify(track, 15));
+        assertEquals(List.of(start, end), TrackSimplifier.simplify(track, 25));
+    }
+    
+    @Test
+    void collapsesAStraightDriveToItsEnds() {
+        List<TrackPoint> track = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            track.add(new TrackPoint(40.0 + i * 0.0001, -75.0, i * 1000L));
+        }
+        
+        assertEquals(List.of(track.get(0), track.get(100)), TrackSimplifier.simplify(track, 1));
+    }
+    
+    @Test
+    void everyDroppedPointStaysWithinToleranceOfTheSimplifiedTrack() {
+        Random random = new Random(9);
+        List<TrackPoint> track = new ArrayList<>();
+        double lat = 40.0;
+        double lon = -75.0;
+        for (int i = 0; i < 2000; i++) {
+            lat += (random.nextDouble() - 0.3) * 0.0002;
+            lon += (random.nextDouble() - 0.5) * 0.0002;
+            track.add(new TrackPoint(lat, lon, i * 1000L));
+        }
+        
+        for (double tolerance : new double[]{2, 10, 50}) {
+            List<TrackPoint> simplified = TrackSimplifier.simplify(track, tolerance);
+            
+            assertEquals(track.get(0), simplified.get(0));
+            assertEquals(track.get(track.size() - 1), simplified.get(simplified.size() - 1));
+            assertTrue(simplified.size() < track.size());
+            int kept = 0;
+            for (int i = 0; i < track.size(); i++) {
+                if (track.get(i) == simplified.get(kept)) {
+                    kept++;
+                    continue;
+                }
+                double off = distanceMeters(track.get(i), simplified.get(kept - 1), simplified.get(kept));
+                assertTrue(off <= tolerance + 1e-6, "point " + i + " is " + off + " m off at tolerance " + tolerance);
+            }
+        }
+    }
+    
+    @Test
+    void leavesShortTracksAndZeroToleranceAlone() {
+        List<TrackPoint> two = List.of(new TrackPoint(40.0, -75.0, 0), new TrackPoint(40.1, -75.0, 1));
+        List<TrackPoint> three = List.of(new TrackPoint(40.0, -75.0, 0), new TrackPoint(40.05, -74.9, 1),
+                new TrackPoint(40.1, -75.0, 2));
+        
+        assertSame(two, TrackSimplifier.simplify(two, 10));
+        assertSame(three, TrackSimplifier.simplify(three, 0));
+    }
+    
+    // Distance from p to segment ab in the same local flat projection the simplifier uses
+    private static double distanceMeters(TrackPoint p, TrackPoint a, TrackPoint b) {
+        double metersPerDegreeLon = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(40.0));
+        double ax = a.longitude() * metersPerDegreeLon;
+        double ay = a.latitude() * METERS_PER_DEGREE_LAT;
+        double dx = b.longitude() * metersPerDegreeLon - ax;
+        double dy = b.latitude() * METERS_PER_DEGREE_LAT - ay;
+        double px = p.longitude() * metersPerDegreeLon - ax;
+        double py = p.latitude() * METERS_PER_DEGREE_LAT - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+}